@@ -39,4 +39,19 @@ public @interface SqliteColumn {
      * @return 是否忽略这个字段
      */
     boolean ignore() default false;
+
+    /**
+     * 读取时通过字典共用相同的字符串实例, 适合取值较少的TEXT 字段(状态, 类型等).
+     * 只能用于String 字段, 且不能与{@link #compress()} 同时使用, 否则编译时报错
+     *
+     * @return 是否共用相同的字符串实例
+     */
+    boolean intern() default false;
+
+    /**
+     * 以BLOB 保存, 较大的值会被压缩, 适合较大的JSON 等文本, 只能用于String 字段, 否则编译时报错
+     *
+     * @return 是否压缩
+     */
+    boolean compress() default false;
 }
@@ -0,0 +1,78 @@
+package com.shuaqiu.sqlighter;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/** 数据库, 包含的表以及打开时需要设置的PRAGMA */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface SqliteDatabase {
+
+    /**
+     * 数据库中的表, 都必须是{@link SqliteTable} 标记的类
+     *
+     * @return 数据库中的表
+     */
+    Class<?>[] tables();
+
+    /**
+     * PRAGMA page_size, 只对新建(或VACUUM 之后)的数据库有效
+     *
+     * @return 页大小, 0 表示不设置
+     */
+    int pageSize() default 0;
+
+    /**
+     * PRAGMA journal_mode
+     *
+     * @return 日志模式
+     */
+    JournalMode journalMode() default JournalMode.WAL;
+
+    /**
+     * PRAGMA synchronous
+     *
+     * @return 同步模式
+     */
+    Synchronous synchronous() default Synchronous.NORMAL;
+
+    /**
+     * PRAGMA cache_size, 负数表示KiB, 正数表示页数
+     *
+     * @return 缓存大小, 0 表示不设置
+     */
+    int cacheSize() default 0;
+
+    /**
+     * PRAGMA mmap_size, 只作用于主连接, 连接池中的只读连接保持默认值
+     *
+     * @return 内存映射的大小, -1 表示不设置
+     */
+    long mmapSize() default -1;
+
+    /**
+     * PRAGMA temp_store
+     *
+     * @return 临时表的存储方式
+     */
+    TempStore tempStore() default TempStore.MEMORY;
+
+    /** journal_mode 的取值 */
+    enum JournalMode {
+        DELETE, TRUNCATE, PERSIST, MEMORY, WAL, OFF
+    }
+
+    /** synchronous 的取值, 查询PRAGMA synchronous 时返回的是序号 */
+    enum Synchronous {
+        OFF, NORMAL, FULL, EXTRA
+    }
+
+    /** temp_store 的取值, 查询PRAGMA temp_store 时返回的是序号. DEFAULT 表示不设置 */
+    enum TempStore {
+        DEFAULT, FILE, MEMORY
+    }
+}
@@ -18,4 +18,18 @@ public @interface SqliteTable {
      * @return table 名
      */
     String value() default "";
+
+    /**
+     * 是否为大表, 检查查询计划时不允许对大表做全表扫描
+     *
+     * @return 是否为大表
+     */
+    boolean large() default false;
+
+    /**
+     * 是否记录变更日志. 会生成 "表名_changes" 表以及插入, 更新, 删除的触发器, 用于增量同步
+     *
+     * @return 是否记录变更日志
+     */
+    boolean trackChanges() default false;
 }
@@ -0,0 +1,19 @@
+package com.shuaqiu.sqlighter.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 数据库连接的提供者, 每次调用都应返回一个独立的连接, 由调用方负责关闭.
+ * 可以是连接池, 调用方修改的连接状态(如只读) 会在关闭前恢复
+ */
+public interface ConnectionProvider {
+
+    /**
+     * 获取一个数据库连接
+     *
+     * @return 数据库连接
+     * @throws SQLException 获取连接出现异常
+     */
+    Connection getConnection() throws SQLException;
+}
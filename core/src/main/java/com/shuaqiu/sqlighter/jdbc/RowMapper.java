@@ -0,0 +1,21 @@
+package com.shuaqiu.sqlighter.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 将ResultSet 的当前行转换为对象, 一般直接调用生成的XxxUtils.fromResultSet
+ *
+ * @param <T> 对象类型
+ */
+public interface RowMapper<T> {
+
+    /**
+     * 转换当前行
+     *
+     * @param resultSet 已经定位到某一行的ResultSet
+     * @return 转换后的对象
+     * @throws SQLException 读取出现异常
+     */
+    T map(ResultSet resultSet) throws SQLException;
+}
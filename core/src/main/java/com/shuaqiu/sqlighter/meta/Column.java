@@ -0,0 +1,89 @@
+package com.shuaqiu.sqlighter.meta;
+
+import com.shuaqiu.sqlighter.SqliteColumn;
+import com.shuaqiu.sqlighter.SqliteId;
+
+/**
+ * 字段的元数据, 由生成的XxxColumns 类以常量的形式提供, 用于拼接SQL, 避免手写字段名
+ */
+public final class Column {
+
+    private final String name;
+    private final String sqlType;
+    private final int ordinal;
+    private final boolean nullable;
+    private final boolean primaryKey;
+    private final boolean unique;
+
+    /**
+     * @param name       字段名
+     * @param sqlType    SQLite 的类型
+     * @param ordinal    在表中的位置, 从0 开始, 与select * 以及projection() 的下标一致
+     * @param nullable   是否可以为null
+     * @param primaryKey 是否为主键
+     * @param unique     是否有唯一约束
+     */
+    public Column(final String name, final String sqlType, final int ordinal, final boolean nullable,
+                  final boolean primaryKey, final boolean unique) {
+        this.name = name;
+        this.sqlType = sqlType;
+        this.ordinal = ordinal;
+        this.nullable = nullable;
+        this.primaryKey = primaryKey;
+        this.unique = unique;
+    }
+
+    /**
+     * @return 字段名
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return SQLite 的类型, 如INTEGER, TEXT
+     */
+    public String getSqlType() {
+        return sqlType;
+    }
+
+    /**
+     * @return 在表中的位置, 从0 开始, 即Cursor 中的下标
+     */
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    /**
+     * @return Schema 中是否可以为null: 只有INTEGER 主键和{@link SqliteColumn#nullable()} 为false 的字段不能为null
+     */
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    /**
+     * @return 是否为主键, 参考{@link SqliteId}
+     */
+    public boolean isPrimaryKey() {
+        return primaryKey;
+    }
+
+    /**
+     * @return 是否有唯一约束, 参考{@link SqliteColumn#unique()}
+     */
+    public boolean isUnique() {
+        return unique;
+    }
+
+    /**
+     * @return 是否有索引(主键或唯一约束)
+     */
+    public boolean isIndexed() {
+        return primaryKey || unique;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,170 @@
+package com.shuaqiu.sqlighter.observe;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 表变更的通知. 生成的写方法在提交后发布修改过的表名, 订阅者只在自己读取的表被修改时收到通知.
+ * <p>
+ * 在{@link #beginTransaction()} 和{@link #endTransaction(boolean)} 之间发布的表名会合并,
+ * 在最外层的事务成功结束时作为一个通知发出; 任意一层失败(回滚) 则丢弃. 事务按线程记录, 可以嵌套,
+ * 与SQLiteDatabase 的事务一致. 通知在提交的线程中同步发出, 订阅者应尽快返回.
+ * <p>
+ * 生成的XxxUtils.runInTransaction 同时开启数据库和通知的事务, 只在数据库事务真正提交后通知;
+ * 在其中调用的写方法会加入这个事务, 不会在提交前单独通知
+ */
+public final class InvalidationBus {
+
+    private static final InvalidationBus DEFAULT = new InvalidationBus();
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private final ThreadLocal<Transaction> transaction = new ThreadLocal<>();
+
+    /**
+     * @return 生成的代码使用的默认实例
+     */
+    public static InvalidationBus getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * 订阅表的变更
+     *
+     * @param listener 监听器
+     * @param tables   关注的表名, 不区分大小写
+     * @return 订阅, 用于取消订阅
+     */
+    public Subscription subscribe(final Listener listener, final String... tables) {
+        final Set<String> names = new HashSet<>(tables.length);
+        for (final String table : tables) {
+            names.add(normalize(table));
+        }
+        final Subscription subscription = new Subscription(this, listener, names);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * 开始一个事务(可以嵌套), 之后发布的表名在事务结束时才通知
+     */
+    public void beginTransaction() {
+        Transaction current = transaction.get();
+        if (current == null) {
+            current = new Transaction();
+            transaction.set(current);
+        }
+        current.depth++;
+    }
+
+    /**
+     * 结束一个事务. 最外层的事务结束时, 如果所有层都成功, 则通知合并后的表名
+     *
+     * @param successful 这一层是否成功
+     */
+    public void endTransaction(final boolean successful) {
+        final Transaction current = transaction.get();
+        if (current == null) {
+            throw new IllegalStateException("no transaction in progress");
+        }
+
+        if (!successful) {
+            current.failed = true;
+        }
+
+        current.depth--;
+        if (current.depth > 0) {
+            return;
+        }
+
+        transaction.remove();
+        if (!current.failed && !current.tables.isEmpty()) {
+            dispatch(current.tables);
+        }
+    }
+
+    /**
+     * 发布表的变更. 在事务中时合并到事务结束时通知, 否则立即通知
+     *
+     * @param table 表名
+     */
+    public void publish(final String table) {
+        final Transaction current = transaction.get();
+        if (current != null) {
+            current.tables.add(normalize(table));
+            return;
+        }
+        dispatch(Collections.singleton(normalize(table)));
+    }
+
+    /**
+     * 通知关注了这些表的订阅者
+     *
+     * @param tables 修改过的表名
+     */
+    private void dispatch(final Set<String> tables) {
+        final Set<String> unmodifiableTables = Collections.unmodifiableSet(tables);
+        for (final Subscription subscription : subscriptions) {
+            if (subscription.matches(tables)) {
+                subscription.listener.onInvalidated(unmodifiableTables);
+            }
+        }
+    }
+
+    private static String normalize(final String table) {
+        return table.toLowerCase(Locale.ENGLISH);
+    }
+
+    /** 表变更的监听器 */
+    public interface Listener {
+
+        /**
+         * 关注的表被修改了
+         *
+         * @param tables 本次修改的所有表名(小写)
+         */
+        void onInvalidated(Set<String> tables);
+    }
+
+    /** 订阅 */
+    public static final class Subscription {
+
+        private final InvalidationBus bus;
+        private final Listener listener;
+        private final Set<String> tables;
+
+        private Subscription(final InvalidationBus bus, final Listener listener, final Set<String> tables) {
+            this.bus = bus;
+            this.listener = listener;
+            this.tables = tables;
+        }
+
+        private boolean matches(final Collection<String> changedTables) {
+            for (final String table : changedTables) {
+                if (tables.contains(table)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 取消订阅
+         */
+        public void unsubscribe() {
+            bus.subscriptions.remove(this);
+        }
+    }
+
+    /** 当前线程的事务 */
+    private static final class Transaction {
+        private int depth;
+        private boolean failed;
+        private final Set<String> tables = new HashSet<>();
+    }
+}
@@ -0,0 +1,152 @@
+package com.shuaqiu.sqlighter.observe;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 可观察的查询: 先执行一次, 之后只在读取的表被修改时重新执行. 一段时间(debounce) 内的多次修改只会重新执行一次.
+ * 同一时间最多只有一个查询在执行, 执行期间的修改会在这次执行结束后再安排一次查询
+ *
+ * @param <T> 查询结果的类型
+ */
+public class ObservableQuery<T> implements InvalidationBus.Listener {
+
+    private final InvalidationBus bus;
+    private final String[] tables;
+    private final Callable<T> query;
+    private final Callback<T> callback;
+    private final ScheduledExecutorService executor;
+    private final long debounceMillis;
+
+    private InvalidationBus.Subscription subscription;
+    private ScheduledFuture<?> pending;
+    private boolean running;
+    private boolean invalidatedWhileRunning;
+    private boolean closed;
+
+    /**
+     * @param bus            通知, 一般为{@link InvalidationBus#getDefault()}
+     * @param tables         查询读取的表名
+     * @param query          查询, 在executor 中执行
+     * @param callback       查询结果的回调, 在executor 中调用
+     * @param executor       执行查询的线程池
+     * @param debounceMillis 收到通知后等待的毫秒数, 期间的通知会合并
+     */
+    public ObservableQuery(final InvalidationBus bus, final String[] tables, final Callable<T> query,
+                           final Callback<T> callback, final ScheduledExecutorService executor,
+                           final long debounceMillis) {
+        this.bus = bus;
+        this.tables = tables.clone();
+        this.query = query;
+        this.callback = callback;
+        this.executor = executor;
+        this.debounceMillis = debounceMillis;
+    }
+
+    /**
+     * 订阅表的变更, 并立即执行一次查询
+     */
+    public synchronized void start() {
+        if (subscription != null || closed) {
+            return;
+        }
+        subscription = bus.subscribe(this, tables);
+        schedule(0);
+    }
+
+    /**
+     * 取消订阅, 不再执行查询
+     */
+    public synchronized void close() {
+        closed = true;
+        if (subscription != null) {
+            subscription.unsubscribe();
+            subscription = null;
+        }
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    @Override
+    public synchronized void onInvalidated(final Set<String> changedTables) {
+        if (closed || pending != null) {
+            // 已经有等待执行的查询, 合并
+            return;
+        }
+        if (running) {
+            // 正在执行的查询可能已经读过了修改前的数据, 结束后再执行一次, 不并发执行
+            invalidatedWhileRunning = true;
+            return;
+        }
+        schedule(debounceMillis);
+    }
+
+    /**
+     * 安排一次查询
+     *
+     * @param delayMillis 延迟的毫秒数
+     */
+    private void schedule(final long delayMillis) {
+        pending = executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                execute();
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 执行查询. 先清除等待标记并标记为执行中, 执行期间的修改在结束后再安排一次查询
+     */
+    private void execute() {
+        synchronized (this) {
+            pending = null;
+            if (closed) {
+                return;
+            }
+            running = true;
+        }
+
+        try {
+            final T result;
+            try {
+                result = query.call();
+            } catch (Exception e) {
+                callback.onError(e);
+                return;
+            }
+            callback.onResult(result);
+        } finally {
+            synchronized (this) {
+                running = false;
+                if (invalidatedWhileRunning && !closed) {
+                    invalidatedWhileRunning = false;
+                    schedule(debounceMillis);
+                }
+            }
+        }
+    }
+
+    /**
+     * 查询结果的回调
+     *
+     * @param <T> 查询结果的类型
+     */
+    public interface Callback<T> {
+
+        /**
+         * @param result 查询结果
+         */
+        void onResult(T result);
+
+        /**
+         * @param e 查询出现的异常
+         */
+        void onError(Exception e);
+    }
+}
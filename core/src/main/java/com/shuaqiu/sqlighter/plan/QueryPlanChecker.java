@@ -0,0 +1,133 @@
+package com.shuaqiu.sqlighter.plan;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import com.shuaqiu.sqlighter.SqliteTable;
+
+/**
+ * 通过EXPLAIN QUERY PLAN 检查查询计划, 一般在测试中对内存数据库使用:
+ * <ul>
+ * <li>对{@link SqliteTable#large()} 的表做全表扫描(SCAN)</li>
+ * <li>ORDER BY 使用了临时B-tree (USE TEMP B-TREE FOR ORDER BY, 包括只对部分排序字段使用的情况)</li>
+ * </ul>
+ * 检查只返回问题的描述, 由调用方决定是失败还是警告
+ */
+public class QueryPlanChecker {
+
+    private final Connection connection;
+    private final Set<String> largeTables = new HashSet<>();
+
+    /**
+     * @param connection 数据库连接, 一般为内存数据库
+     */
+    public QueryPlanChecker(final Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * 执行DDL, 如XxxUtils.schema() 或创建索引的语句
+     *
+     * @param ddl DDL
+     * @throws SQLException 执行出现异常
+     */
+    public void execute(final String ddl) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(ddl);
+        }
+    }
+
+    /**
+     * 标记为大表, 不允许全表扫描
+     *
+     * @param table 表名
+     */
+    public void markLarge(final String table) {
+        largeTables.add(table.toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     * 检查多个语句的查询计划
+     *
+     * @param sqls SQL 语句, 可以包含未绑定的参数(?)
+     * @return 问题的描述, 没有问题时为空
+     * @throws SQLException 语句不能执行
+     */
+    public List<String> check(final Collection<String> sqls) throws SQLException {
+        final List<String> problems = new ArrayList<>();
+        for (final String sql : sqls) {
+            problems.addAll(check(sql));
+        }
+        return problems;
+    }
+
+    /**
+     * 检查语句的查询计划
+     *
+     * @param sql SQL 语句, 可以包含未绑定的参数(?)
+     * @return 问题的描述, 没有问题时为空
+     * @throws SQLException 语句不能执行
+     */
+    public List<String> check(final String sql) throws SQLException {
+        final List<String> problems = new ArrayList<>();
+
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            // 参数的值不影响查询计划, 但部分驱动要求所有参数都已绑定
+            final int parameterCount = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameterCount; i++) {
+                statement.setNull(i, Types.NULL);
+            }
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    final String detail = resultSet.getString("detail");
+                    final String problem = checkDetail(detail);
+                    if (problem != null) {
+                        problems.add(problem + ": " + sql + " -> " + detail);
+                    }
+                }
+            }
+        }
+
+        return problems;
+    }
+
+    /**
+     * 检查查询计划中的一行
+     *
+     * @param detail 查询计划的detail 字段, 如 "SCAN TABLE t" (3.24 之后为 "SCAN t")
+     * @return 问题的描述, 没有问题时返回null
+     */
+    private String checkDetail(final String detail) {
+        final String upperDetail = detail.toUpperCase(Locale.ENGLISH);
+
+        // 还有 "USE TEMP B-TREE FOR RIGHT PART OF ORDER BY", "USE TEMP B-TREE FOR LAST TERM OF ORDER BY" 等形式
+        if (upperDetail.contains("USE TEMP B-TREE FOR") && upperDetail.contains("ORDER BY")) {
+            return "ORDER BY uses a temp B-tree";
+        }
+
+        if (upperDetail.startsWith("SCAN ")) {
+            final String[] words = detail.split("\\s+");
+            // SCAN TABLE t ... 或 SCAN t ...
+            int index = 1;
+            if (words.length > 2 && words[1].equalsIgnoreCase("TABLE")) {
+                index = 2;
+            }
+            if (words.length > index && largeTables.contains(words[index].toLowerCase(Locale.ENGLISH))) {
+                return "full scan on large table " + words[index];
+            }
+        }
+
+        return null;
+    }
+}
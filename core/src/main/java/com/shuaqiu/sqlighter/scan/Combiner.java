@@ -0,0 +1,36 @@
+package com.shuaqiu.sqlighter.scan;
+
+/**
+ * 并行扫描时的结果合并器. 每个分区先用{@link #create()} 得到一个结果, 逐行{@link #accumulate(Object, Object)},
+ * 最后按分区顺序{@link #combine(Object, Object)} 成最终结果
+ *
+ * @param <T> 行对象类型
+ * @param <R> 结果类型
+ */
+public interface Combiner<T, R> {
+
+    /**
+     * 创建一个分区的初始结果, 每个分区调用一次, 不同分区之间不能共享
+     *
+     * @return 初始结果
+     */
+    R create();
+
+    /**
+     * 将一行累加到分区结果中, 只会在同一个分区的线程中调用
+     *
+     * @param result 分区结果
+     * @param row    行对象
+     * @return 累加后的分区结果
+     */
+    R accumulate(R result, T row);
+
+    /**
+     * 合并两个分区的结果, left 对应的rowid 范围在right 之前
+     *
+     * @param left  前一个分区的结果
+     * @param right 后一个分区的结果
+     * @return 合并后的结果
+     */
+    R combine(R left, R right);
+}
@@ -0,0 +1,163 @@
+package com.shuaqiu.sqlighter.scan;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import com.shuaqiu.sqlighter.jdbc.ConnectionProvider;
+import com.shuaqiu.sqlighter.jdbc.RowMapper;
+
+/**
+ * JDBC 的分区扫描实现, 每个分区从{@link ConnectionProvider} 获取一个独立的连接, 扫描期间设为只读, 结束后恢复
+ * <p>
+ * 每个分区都是一个独立的读事务, 不同分区看到的可能是不同时刻的数据, 扫描结果不是整表的一致性快照.
+ * 需要一致性时, 应在扫描期间停止写入
+ *
+ * @param <T> 行对象类型
+ */
+public class JdbcRangeScan<T> implements RangeScan<T> {
+
+    /** 默认按rowid 扫描 */
+    public static final String ROWID = "rowid";
+
+    private final ConnectionProvider connectionProvider;
+    private final String table;
+    private final String keyColumn;
+    private final RowMapper<T> rowMapper;
+
+    /**
+     * 按rowid 扫描
+     *
+     * @param connectionProvider 只读连接的提供者
+     * @param table              表名, 一般为XxxUtils.getTableName()
+     * @param rowMapper          行转换, 一般为XxxUtils.fromResultSet
+     */
+    public JdbcRangeScan(final ConnectionProvider connectionProvider, final String table,
+                         final RowMapper<T> rowMapper) {
+        this(connectionProvider, table, ROWID, rowMapper);
+    }
+
+    /**
+     * 按指定的整数字段扫描
+     *
+     * @param connectionProvider 只读连接的提供者
+     * @param table              表名, 一般为XxxUtils.getTableName()
+     * @param keyColumn          整数字段, 一般为INTEGER 类型的{@link com.shuaqiu.sqlighter.SqliteId}
+     * @param rowMapper          行转换, 一般为XxxUtils.fromResultSet
+     */
+    public JdbcRangeScan(final ConnectionProvider connectionProvider, final String table, final String keyColumn,
+                         final RowMapper<T> rowMapper) {
+        this.connectionProvider = connectionProvider;
+        this.table = table;
+        this.keyColumn = keyColumn;
+        this.rowMapper = rowMapper;
+    }
+
+    @Override
+    public long[] range() throws SQLException {
+        final String sql = "select min(" + keyColumn + "), max(" + keyColumn + ") from " + table;
+        try (Connection connection = connectionProvider.getConnection()) {
+            final ReadOnlyMode mode = setReadOnly(connection);
+            try (PreparedStatement statement = connection.prepareStatement(sql);
+                 ResultSet resultSet = statement.executeQuery()) {
+
+                if (!resultSet.next()) {
+                    return null;
+                }
+                final long min = resultSet.getLong(1);
+                if (resultSet.wasNull()) {
+                    // 空表
+                    return null;
+                }
+                return new long[]{min, resultSet.getLong(2)};
+            } finally {
+                restore(connection, mode);
+            }
+        }
+    }
+
+    @Override
+    public <R> R scan(final long from, final long to, final Combiner<T, R> combiner) throws SQLException {
+        // select * 的字段顺序与schema() 生成的一致, 可以直接交给fromResultSet
+        final String sql = "select * from " + table + " where " + keyColumn + " >= ? and " + keyColumn + " <= ?";
+        try (Connection connection = connectionProvider.getConnection()) {
+            final ReadOnlyMode mode = setReadOnly(connection);
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setLong(1, from);
+                statement.setLong(2, to);
+
+                R result = combiner.create();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        result = combiner.accumulate(result, rowMapper.map(resultSet));
+                    }
+                }
+                return result;
+            } finally {
+                restore(connection, mode);
+            }
+        }
+    }
+
+    /**
+     * 将连接设为只读. 连接可能来自连接池, 扫描结束后需要通过{@link #restore(Connection, ReadOnlyMode)} 恢复
+     * <p>
+     * sqlite-jdbc 不允许在连接建立之后修改只读标记(需要通过SQLiteConfig#setReadOnly 创建连接),
+     * 此时退回到pragma query_only, 效果相同
+     *
+     * @param connection 连接
+     * @return 设置只读的方式
+     * @throws SQLException 设置出现异常
+     */
+    private static ReadOnlyMode setReadOnly(final Connection connection) throws SQLException {
+        if (connection.isReadOnly()) {
+            return ReadOnlyMode.NONE;
+        }
+
+        try {
+            connection.setReadOnly(true);
+            return ReadOnlyMode.READ_ONLY;
+        } catch (SQLException e) {
+            execute(connection, "pragma query_only = 1");
+            return ReadOnlyMode.QUERY_ONLY;
+        }
+    }
+
+    /**
+     * 恢复连接原来的状态, 避免连接池中的连接一直是只读的
+     *
+     * @param connection 连接
+     * @param mode       设置只读的方式
+     * @throws SQLException 恢复出现异常
+     */
+    private static void restore(final Connection connection, final ReadOnlyMode mode) throws SQLException {
+        switch (mode) {
+            case READ_ONLY:
+                connection.setReadOnly(false);
+                break;
+            case QUERY_ONLY:
+                execute(connection, "pragma query_only = 0");
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void execute(final Connection connection, final String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    /** 设置只读的方式 */
+    private enum ReadOnlyMode {
+        /** 连接本身就是只读的, 不需要设置 */
+        NONE,
+        /** Connection#setReadOnly */
+        READ_ONLY,
+        /** pragma query_only */
+        QUERY_ONLY
+    }
+}
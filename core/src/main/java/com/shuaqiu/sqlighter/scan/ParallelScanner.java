@@ -0,0 +1,106 @@
+package com.shuaqiu.sqlighter.scan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * 按rowid 范围将整表扫描拆分成多个分区, 在不同的线程(及不同的只读连接)上并行执行
+ * <p>
+ * executor 可以是{@link java.util.concurrent.ForkJoinPool}, 也可以是虚拟线程的executor, 由调用方负责关闭
+ * <p>
+ * 每个分区在各自的读事务中执行, 分区之间可能看到不同时刻的数据, 合并后的结果不是整表的一致性快照
+ */
+public final class ParallelScanner {
+
+    private ParallelScanner() {
+    }
+
+    /**
+     * 并行扫描整张表
+     *
+     * @param scan       分区扫描的实现
+     * @param partitions 分区数, 一般为CPU 核数或只读连接数
+     * @param combiner   结果合并器
+     * @param executor   执行分区扫描的线程池
+     * @param <T>        行对象类型
+     * @param <R>        结果类型
+     * @return 按分区顺序合并后的结果
+     * @throws Exception 任意一个分区扫描出现异常
+     */
+    public static <T, R> R scan(final RangeScan<T> scan, final int partitions, final Combiner<T, R> combiner,
+                                final ExecutorService executor) throws Exception {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be positive: " + partitions);
+        }
+
+        final long[] range = scan.range();
+        if (range == null) {
+            // 空表
+            return combiner.create();
+        }
+
+        final List<long[]> ranges = split(range[0], range[1], partitions);
+
+        final List<Callable<R>> tasks = new ArrayList<>(ranges.size());
+        for (final long[] partition : ranges) {
+            tasks.add(new Callable<R>() {
+                @Override
+                public R call() throws Exception {
+                    return scan.scan(partition[0], partition[1], combiner);
+                }
+            });
+        }
+
+        final List<Future<R>> futures = executor.invokeAll(tasks);
+
+        R result = null;
+        for (final Future<R> future : futures) {
+            final R partial;
+            try {
+                partial = future.get();
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw e;
+            }
+            result = result == null ? partial : combiner.combine(result, partial);
+        }
+        return result;
+    }
+
+    /**
+     * 将 [min, max] 拆分成不超过 partitions 个连续且不重叠的范围
+     *
+     * @param min        最小值(包含)
+     * @param max        最大值(包含)
+     * @param partitions 分区数
+     * @return 分区范围的列表, 每个元素为 {from, to}, 均包含
+     */
+    static List<long[]> split(final long min, final long max, final int partitions) {
+        final List<long[]> ranges = new ArrayList<>(partitions);
+
+        // 用double 计算, 避免 max - min 溢出
+        final double span = (double) max - (double) min + 1;
+        final long size = Math.max(1, (long) Math.ceil(span / partitions));
+
+        long from = min;
+        while (true) {
+            // max - from 溢出时为负数, 表示剩余的范围远大于size; 最后一个分区直接到max
+            final long diff = max - from;
+            final boolean last = (diff >= 0 && diff < size) || ranges.size() == partitions - 1;
+            final long to = last ? max : from + size - 1;
+            ranges.add(new long[]{from, to});
+            if (last) {
+                break;
+            }
+            from = to + 1;
+        }
+        return ranges;
+    }
+}
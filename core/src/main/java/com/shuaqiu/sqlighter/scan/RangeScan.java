@@ -0,0 +1,30 @@
+package com.shuaqiu.sqlighter.scan;
+
+/**
+ * 扫描rowid 在某个范围内的行, 由具体的数据库访问方式实现: JDBC 为{@link JdbcRangeScan},
+ * Android SQLiteDatabase 为生成的XxxUtils.rangeScan(db)
+ *
+ * @param <T> 行对象类型
+ */
+public interface RangeScan<T> {
+
+    /**
+     * 获取rowid 的范围
+     *
+     * @return {最小值, 最大值}, 表为空时返回null
+     * @throws Exception 查询出现异常
+     */
+    long[] range() throws Exception;
+
+    /**
+     * 扫描 from &lt;= rowid &lt;= to 的行, 并累加到分区结果中
+     *
+     * @param from     rowid 下限(包含)
+     * @param to       rowid 上限(包含)
+     * @param combiner 结果合并器
+     * @param <R>      结果类型
+     * @return 分区结果
+     * @throws Exception 查询出现异常
+     */
+    <R> R scan(long from, long to, Combiner<T, R> combiner) throws Exception;
+}
@@ -0,0 +1,54 @@
+package com.shuaqiu.sqlighter.sync;
+
+import com.shuaqiu.sqlighter.SqliteTable;
+
+/**
+ * 变更日志中的一条记录, 由{@link SqliteTable#trackChanges()} 的表生成的触发器写入
+ *
+ * @param <K> 主键类型
+ */
+public final class Change<K> {
+
+    /** 插入 */
+    public static final int INSERT = 1;
+    /** 更新, 主键被修改时记为旧主键的删除和新主键的插入 */
+    public static final int UPDATE = 2;
+    /** 删除 */
+    public static final int DELETE = 3;
+
+    private final long seq;
+    private final K id;
+    private final int op;
+
+    public Change(final long seq, final K id, final int op) {
+        this.seq = seq;
+        this.id = id;
+        this.op = op;
+    }
+
+    /**
+     * @return 单调递增的序号, 同步完成后用于ackUpTo
+     */
+    public long getSeq() {
+        return seq;
+    }
+
+    /**
+     * @return 变更的行的主键
+     */
+    public K getId() {
+        return id;
+    }
+
+    /**
+     * @return 操作类型: {@link #INSERT}, {@link #UPDATE}, {@link #DELETE}
+     */
+    public int getOp() {
+        return op;
+    }
+
+    @Override
+    public String toString() {
+        return "Change{seq=" + seq + ", id=" + id + ", op=" + op + "}";
+    }
+}
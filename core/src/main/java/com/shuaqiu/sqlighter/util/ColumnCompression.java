@@ -0,0 +1,179 @@
+package com.shuaqiu.sqlighter.util;
+
+import java.nio.charset.Charset;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.shuaqiu.sqlighter.SqliteColumn;
+
+/**
+ * {@link SqliteColumn#compress()} 的字段的压缩和解压. 压缩后的格式为:
+ * <ul>
+ * <li>{@link #RAW} + UTF-8 字节: 小于{@link #THRESHOLD} 或压缩后没有变小的值</li>
+ * <li>{@link #DEFLATE} + 4 字节的原始长度 + deflate 的数据</li>
+ * </ul>
+ * 没有上述头部的值(如生成的代码之外直接写入的TEXT) 按UTF-8 原样读取, 只是兼容处理: 以0x00, 0x01 开头的文本会被当作头部,
+ * 所以生成的代码写入时总是带头部. Deflater, Inflater 以及不超过64 KiB 的缓冲区按线程复用
+ */
+public final class ColumnCompression {
+
+    /** 未压缩 */
+    public static final byte RAW = 0;
+    /** deflate 压缩 */
+    public static final byte DEFLATE = 1;
+
+    /** 小于这个字节数的值不压缩 */
+    public static final int THRESHOLD = 256;
+
+    /** 解压后的最大字节数, 超过时认为头部已损坏, 避免按损坏的长度分配过大的数组 */
+    public static final int MAX_LENGTH = 64 * 1024 * 1024;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int DEFLATE_HEADER_LENGTH = 5;
+
+    /** deflate 的最大压缩比约为1032:1, 原始长度超过压缩数据的这个倍数时头部一定已损坏 */
+    private static final int MAX_DEFLATE_RATIO = 1032;
+
+    /** 按线程保留的缓冲区的最大字节数, 更大的值使用临时的数组, 避免偶尔一个大值让每个线程一直占用大块内存 */
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private static final ThreadLocal<Deflater> DEFLATER = new ThreadLocal<Deflater>() {
+        @Override
+        protected Deflater initialValue() {
+            return new Deflater(Deflater.DEFAULT_COMPRESSION);
+        }
+    };
+
+    private static final ThreadLocal<Inflater> INFLATER = new ThreadLocal<Inflater>() {
+        @Override
+        protected Inflater initialValue() {
+            return new Inflater();
+        }
+    };
+
+    private static final ThreadLocal<byte[]> BUFFER = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[4096];
+        }
+    };
+
+    private ColumnCompression() {
+    }
+
+    /**
+     * 压缩字符串
+     *
+     * @param value 字符串, 可以为null
+     * @return 带头部的字节, value 为null 时返回null
+     */
+    public static byte[] compress(final String value) {
+        if (value == null) {
+            return null;
+        }
+
+        final byte[] bytes = value.getBytes(UTF_8);
+        if (bytes.length < THRESHOLD) {
+            return raw(bytes);
+        }
+
+        final Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        deflater.setInput(bytes);
+        deflater.finish();
+
+        // 压缩后不小于原始长度的, 没有必要压缩
+        byte[] buffer = BUFFER.get();
+        if (buffer.length < bytes.length) {
+            buffer = new byte[bytes.length];
+            if (bytes.length <= MAX_RETAINED_BUFFER) {
+                BUFFER.set(buffer);
+            }
+        }
+        int length = 0;
+        while (!deflater.finished() && length < bytes.length) {
+            length += deflater.deflate(buffer, length, bytes.length - length);
+        }
+        if (!deflater.finished() || DEFLATE_HEADER_LENGTH + length > bytes.length) {
+            return raw(bytes);
+        }
+
+        final byte[] compressed = new byte[DEFLATE_HEADER_LENGTH + length];
+        compressed[0] = DEFLATE;
+        compressed[1] = (byte) (bytes.length >>> 24);
+        compressed[2] = (byte) (bytes.length >>> 16);
+        compressed[3] = (byte) (bytes.length >>> 8);
+        compressed[4] = (byte) bytes.length;
+        System.arraycopy(buffer, 0, compressed, DEFLATE_HEADER_LENGTH, length);
+        return compressed;
+    }
+
+    /**
+     * 解压为字符串
+     *
+     * @param data {@link #compress(String)} 的结果, 可以为null
+     * @return 字符串, data 为null 时返回null
+     * @throws IllegalArgumentException 数据已损坏, 包括头部中的长度不合理
+     */
+    public static String decompress(final byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (data.length == 0) {
+            return "";
+        }
+
+        if (data[0] == RAW) {
+            return new String(data, 1, data.length - 1, UTF_8);
+        }
+
+        if (data[0] != DEFLATE || data.length < DEFLATE_HEADER_LENGTH) {
+            // 没有头部, 如未压缩前写入的TEXT
+            return new String(data, UTF_8);
+        }
+
+        final int length = ((data[1] & 0xff) << 24) | ((data[2] & 0xff) << 16) | ((data[3] & 0xff) << 8) | (data[4] & 0xff);
+        final int payloadLength = data.length - DEFLATE_HEADER_LENGTH;
+        // 只有压缩后变小的值才会以DEFLATE 保存, 所以原始长度不会小于压缩数据的长度
+        if (length < payloadLength || length > MAX_LENGTH || (long) payloadLength * MAX_DEFLATE_RATIO < length) {
+            throw new IllegalArgumentException("corrupted compressed column, invalid length " + length
+                    + " for " + payloadLength + " bytes of compressed data");
+        }
+        final byte[] bytes = new byte[length];
+
+        final Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(data, DEFLATE_HEADER_LENGTH, payloadLength);
+        try {
+            int inflated = 0;
+            while (inflated < length && !inflater.finished()) {
+                final int n = inflater.inflate(bytes, inflated, length - inflated);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += n;
+            }
+            if (inflated != length) {
+                throw new IllegalArgumentException("corrupted compressed column, expected " + length + " bytes, got " + inflated);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("corrupted compressed column", e);
+        }
+
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * 加上{@link #RAW} 头部
+     *
+     * @param bytes 原始字节
+     * @return 带头部的字节
+     */
+    private static byte[] raw(final byte[] bytes) {
+        final byte[] data = new byte[bytes.length + 1];
+        data[0] = RAW;
+        System.arraycopy(bytes, 0, data, 1, bytes.length);
+        return data;
+    }
+}
@@ -0,0 +1,62 @@
+package com.shuaqiu.sqlighter.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.shuaqiu.sqlighter.SqliteColumn;
+
+/**
+ * 有上限的字符串字典, 线程安全. 用于{@link SqliteColumn#intern()} 的字段, 让取值相同的字符串共用同一个实例.
+ * <p>
+ * 字典满了之后不再加入新的值, 直接返回原值, 所以只适合取值较少的字段. 并发时实际大小可能略微超过上限
+ */
+public final class StringDictionary {
+
+    /** 默认的上限 */
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    private final ConcurrentMap<String, String> values = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    public StringDictionary() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize 字典中最多保存的字符串个数
+     */
+    public StringDictionary(final int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 获取字典中与value 相等的实例, 没有则加入字典
+     *
+     * @param value 字符串, 可以为null
+     * @return 字典中的实例; 字典已满时返回value 本身
+     */
+    public String intern(final String value) {
+        if (value == null) {
+            return null;
+        }
+
+        final String canonical = values.get(value);
+        if (canonical != null) {
+            return canonical;
+        }
+
+        if (values.size() >= maxSize) {
+            return value;
+        }
+
+        final String previous = values.putIfAbsent(value, value);
+        return previous == null ? value : previous;
+    }
+
+    /**
+     * @return 字典中字符串的个数
+     */
+    public int size() {
+        return values.size();
+    }
+}
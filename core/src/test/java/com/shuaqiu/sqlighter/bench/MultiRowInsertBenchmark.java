@@ -0,0 +1,98 @@
+package com.shuaqiu.sqlighter.bench;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 对比在同一个事务中逐行INSERT 和多行INSERT (生成的insertAll) 的耗时.
+ * 每条多行语句的行数与生成的代码一致: min(500, 999 / 字段数).
+ * 不是单元测试, 直接运行main 方法, 输出每行的平均耗时
+ */
+public class MultiRowInsertBenchmark {
+
+    private static final int COLUMNS = 3;
+    private static final int ROWS_PER_STATEMENT = Math.max(1, Math.min(500, 999 / COLUMNS));
+    private static final int ROWS = 100000;
+    private static final int ROUNDS = 10;
+
+    public static void main(final String[] args) throws Exception {
+        try (final Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            try (final Statement statement = connection.createStatement()) {
+                statement.execute("create table Bench(id INTEGER primary key autoincrement, status TEXT not null, "
+                        + "countryCode TEXT, amount INTEGER)");
+            }
+
+            // 预热
+            insert(connection, 1);
+            insert(connection, ROWS_PER_STATEMENT);
+
+            long single = 0;
+            long multi = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                single += insert(connection, 1);
+                multi += insert(connection, ROWS_PER_STATEMENT);
+            }
+
+            final double singlePerRow = (double) single / ROUNDS / ROWS;
+            final double multiPerRow = (double) multi / ROUNDS / ROWS;
+            System.out.printf("%d rows x %d columns, %d rows per statement%n", ROWS, COLUMNS, ROWS_PER_STATEMENT);
+            System.out.printf("single-row insert : %.1f ns/row%n", singlePerRow);
+            System.out.printf("multi-row insert  : %.1f ns/row%n", multiPerRow);
+            System.out.printf("speedup           : %.2fx%n", singlePerRow / multiPerRow);
+        }
+    }
+
+    /**
+     * 在一个事务中插入{@link #ROWS} 行, 与生成的insertAll 一样, 满的语句共用一个, 余下的行再编译一个
+     *
+     * @param connection       数据库连接
+     * @param rowsPerStatement 每条语句的行数, 1 为逐行插入
+     * @return 耗时(纳秒), 不包括清空表的时间
+     */
+    private static long insert(final Connection connection, final int rowsPerStatement) throws SQLException {
+        try (final Statement statement = connection.createStatement()) {
+            statement.execute("delete from Bench");
+        }
+
+        final long start = System.nanoTime();
+        connection.setAutoCommit(false);
+        try (final PreparedStatement full = connection.prepareStatement(buildInsertSql(rowsPerStatement))) {
+            int row = 0;
+            while (ROWS - row >= rowsPerStatement) {
+                row = bindRows(full, row, rowsPerStatement);
+                full.executeUpdate();
+            }
+            if (row < ROWS) {
+                try (final PreparedStatement last = connection.prepareStatement(buildInsertSql(ROWS - row))) {
+                    row = bindRows(last, row, ROWS - row);
+                    last.executeUpdate();
+                }
+            }
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+        return System.nanoTime() - start;
+    }
+
+    private static int bindRows(final PreparedStatement statement, final int firstRow, final int rows)
+            throws SQLException {
+        int index = 1;
+        for (int row = firstRow; row < firstRow + rows; row++) {
+            statement.setString(index++, (row % 3 == 0) ? "active" : "inactive");
+            statement.setString(index++, (row % 2 == 0) ? "CN" : "US");
+            statement.setLong(index++, row);
+        }
+        return firstRow + rows;
+    }
+
+    private static String buildInsertSql(final int rows) {
+        final StringBuilder sql = new StringBuilder("insert into Bench (status, countryCode, amount) values ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+        }
+        return sql.toString();
+    }
+}
@@ -0,0 +1,100 @@
+package com.shuaqiu.sqlighter.bench;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 对比读取NOT NULL 字段时, 每个字段都判断null 和直接读取 (现在生成的代码) 的耗时.
+ * 判断null 的方式与生成的fromResultSet 对可以为null 的字段一致: 先按类型读取, 再调用wasNull,
+ * 所以差值只是多出的null 判断, 不包括装箱或者重复读取.
+ * 不是单元测试, 直接运行main 方法, 输出每行的平均耗时
+ */
+public class NullCheckBenchmark {
+
+    private static final int COLUMNS = 16;
+    private static final int ROWS = 100000;
+    private static final int ROUNDS = 10;
+
+    public static void main(final String[] args) throws Exception {
+        try (final Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            prepare(connection);
+
+            // 预热
+            readAll(connection, true);
+            readAll(connection, false);
+
+            long checked = 0;
+            long direct = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                checked += readAll(connection, true);
+                direct += readAll(connection, false);
+            }
+
+            final double checkedPerRow = (double) checked / ROUNDS / ROWS;
+            final double directPerRow = (double) direct / ROUNDS / ROWS;
+            System.out.printf("%d rows x %d NOT NULL columns%n", ROWS, COLUMNS);
+            System.out.printf("with null check : %.1f ns/row%n", checkedPerRow);
+            System.out.printf("direct read     : %.1f ns/row%n", directPerRow);
+            System.out.printf("saved           : %.1f ns/row (%.1f%%)%n",
+                    checkedPerRow - directPerRow, (checkedPerRow - directPerRow) * 100 / checkedPerRow);
+        }
+    }
+
+    private static void prepare(final Connection connection) throws SQLException {
+        final StringBuilder schema = new StringBuilder("create table Bench(id INTEGER primary key");
+        final StringBuilder insert = new StringBuilder("insert into Bench values (?");
+        for (int i = 1; i < COLUMNS; i++) {
+            schema.append(", c").append(i).append(" INTEGER not null");
+            insert.append(", ?");
+        }
+        try (final Statement statement = connection.createStatement()) {
+            statement.execute(schema.append(')').toString());
+        }
+
+        connection.setAutoCommit(false);
+        try (final PreparedStatement statement = connection.prepareStatement(insert.append(')').toString())) {
+            for (int row = 0; row < ROWS; row++) {
+                statement.setLong(1, row);
+                for (int i = 2; i <= COLUMNS; i++) {
+                    statement.setLong(i, row * i);
+                }
+                statement.executeUpdate();
+            }
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    /**
+     * 读取所有的行
+     *
+     * @param connection 数据库连接
+     * @param checkNull  是否在读取每个字段后判断null
+     * @return 耗时(纳秒)
+     */
+    private static long readAll(final Connection connection, final boolean checkNull) throws SQLException {
+        long sum = 0;
+        final long start = System.nanoTime();
+        try (final Statement statement = connection.createStatement();
+             final ResultSet resultSet = statement.executeQuery("select * from Bench")) {
+            while (resultSet.next()) {
+                for (int i = 1; i <= COLUMNS; i++) {
+                    final long value = resultSet.getLong(i);
+                    if (!checkNull || !resultSet.wasNull()) {
+                        sum += value;
+                    }
+                }
+            }
+        }
+        final long elapsed = System.nanoTime() - start;
+        if (sum == 42) {
+            // 避免读取被优化掉
+            System.out.println(sum);
+        }
+        return elapsed;
+    }
+}
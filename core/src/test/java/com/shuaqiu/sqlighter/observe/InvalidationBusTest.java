@@ -0,0 +1,167 @@
+package com.shuaqiu.sqlighter.observe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test
+ */
+public class InvalidationBusTest {
+
+    @Test
+    public void testTransaction() {
+        final InvalidationBus bus = new InvalidationBus();
+        final List<Set<String>> events = new ArrayList<>();
+        bus.subscribe(new InvalidationBus.Listener() {
+            @Override
+            public void onInvalidated(final Set<String> tables) {
+                events.add(tables);
+            }
+        }, "Item");
+
+        // 不关注的表
+        bus.publish("Tag");
+        assertEquals(0, events.size());
+
+        bus.publish("item");
+        assertEquals(1, events.size());
+
+        // 嵌套的事务合并为一个通知
+        bus.beginTransaction();
+        bus.publish("Item");
+        bus.beginTransaction();
+        bus.publish("Item");
+        bus.publish("Tag");
+        bus.endTransaction(true);
+        assertEquals(1, events.size());
+        bus.endTransaction(true);
+        assertEquals(2, events.size());
+        assertEquals(2, events.get(1).size());
+
+        // 回滚的事务不通知
+        bus.beginTransaction();
+        bus.publish("Item");
+        bus.beginTransaction();
+        bus.endTransaction(false);
+        bus.endTransaction(true);
+        assertEquals(2, events.size());
+    }
+
+    @Test
+    public void testObservableQuery() throws Exception {
+        final InvalidationBus bus = new InvalidationBus();
+        final ScheduledExecutorService executor = new ScheduledThreadPoolExecutor(1);
+        final AtomicInteger runs = new AtomicInteger();
+        final CountDownLatch first = new CountDownLatch(1);
+        final CountDownLatch second = new CountDownLatch(2);
+
+        final ObservableQuery<Integer> query = new ObservableQuery<>(bus, new String[]{"Item"},
+                new Callable<Integer>() {
+                    @Override
+                    public Integer call() {
+                        return runs.incrementAndGet();
+                    }
+                },
+                new ObservableQuery.Callback<Integer>() {
+                    @Override
+                    public void onResult(final Integer result) {
+                        first.countDown();
+                        second.countDown();
+                    }
+
+                    @Override
+                    public void onError(final Exception e) {
+                    }
+                }, executor, 50);
+        try {
+            query.start();
+            assertTrue(first.await(5, TimeUnit.SECONDS));
+
+            // 连续的修改只会重新查询一次
+            for (int i = 0; i < 100; i++) {
+                bus.publish("Item");
+            }
+            bus.publish("Tag");
+            assertTrue(second.await(5, TimeUnit.SECONDS));
+            Thread.sleep(200);
+            assertEquals(2, runs.get());
+
+            query.close();
+            bus.publish("Item");
+            Thread.sleep(200);
+            assertEquals(2, runs.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testObservableQueryNotConcurrent() throws Exception {
+        final InvalidationBus bus = new InvalidationBus();
+        final ScheduledExecutorService executor = new ScheduledThreadPoolExecutor(4);
+        final AtomicInteger runs = new AtomicInteger();
+        final AtomicInteger concurrent = new AtomicInteger();
+        final AtomicInteger maxConcurrent = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch rerun = new CountDownLatch(2);
+
+        final ObservableQuery<Integer> query = new ObservableQuery<>(bus, new String[]{"Item"},
+                new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        maxConcurrent.set(Math.max(maxConcurrent.get(), concurrent.incrementAndGet()));
+                        try {
+                            final int run = runs.incrementAndGet();
+                            if (run == 1) {
+                                started.countDown();
+                                release.await(5, TimeUnit.SECONDS);
+                            }
+                            return run;
+                        } finally {
+                            concurrent.decrementAndGet();
+                        }
+                    }
+                },
+                new ObservableQuery.Callback<Integer>() {
+                    @Override
+                    public void onResult(final Integer result) {
+                        rerun.countDown();
+                    }
+
+                    @Override
+                    public void onError(final Exception e) {
+                    }
+                }, executor, 10);
+        try {
+            query.start();
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // 执行期间的修改不并发执行, 结束后再执行一次
+            bus.publish("Item");
+            Thread.sleep(100);
+            assertEquals(1, runs.get());
+
+            release.countDown();
+            assertTrue(rerun.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            assertEquals(2, runs.get());
+            assertEquals(1, maxConcurrent.get());
+        } finally {
+            query.close();
+            executor.shutdown();
+        }
+    }
+}
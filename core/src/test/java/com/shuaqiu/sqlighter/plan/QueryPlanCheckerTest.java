@@ -0,0 +1,62 @@
+package com.shuaqiu.sqlighter.plan;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test
+ */
+public class QueryPlanCheckerTest {
+
+    private Connection connection;
+    private QueryPlanChecker checker;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        checker = new QueryPlanChecker(connection);
+        checker.execute("create table if not exists Item(id INTEGER primary key, name TEXT, status TEXT)");
+        checker.execute("create index Item_status on Item(status)");
+        checker.execute("create table if not exists Tag(id INTEGER primary key, name TEXT)");
+        checker.markLarge("Item");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    public void testCheck() throws Exception {
+        assertTrue(checker.check("select * from Item where id = ?").isEmpty());
+        assertTrue(checker.check("select * from Item where status = ?").isEmpty());
+        assertTrue(checker.check("delete from Item where id in (?, ?)").isEmpty());
+
+        // 不是大表, 允许全表扫描
+        assertTrue(checker.check("select * from Tag where name = ?").isEmpty());
+
+        final List<String> scan = checker.check("select * from Item where name = ?");
+        assertEquals(1, scan.size());
+        assertTrue(scan.get(0).startsWith("full scan on large table Item"));
+
+        final List<String> orderBy = checker.check(Arrays.asList(
+                "select * from Item where status = ? order by name",
+                "select * from Item where status = ? order by id"));
+        assertEquals(1, orderBy.size());
+        assertTrue(orderBy.get(0).startsWith("ORDER BY uses a temp B-tree"));
+
+        // 索引只覆盖第一个排序字段: USE TEMP B-TREE FOR RIGHT PART OF ORDER BY
+        final List<String> rightPart = checker.check("select * from Item where status > ? order by status, name");
+        assertEquals(1, rightPart.size());
+        assertTrue(rightPart.get(0).startsWith("ORDER BY uses a temp B-tree"));
+    }
+}
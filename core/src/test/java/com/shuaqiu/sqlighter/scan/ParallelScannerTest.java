@@ -0,0 +1,211 @@
+package com.shuaqiu.sqlighter.scan;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.shuaqiu.sqlighter.jdbc.ConnectionProvider;
+import com.shuaqiu.sqlighter.jdbc.RowMapper;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Test
+ */
+public class ParallelScannerTest {
+
+    private File file;
+    private ConnectionProvider connectionProvider;
+    private ForkJoinPool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("scan", ".db");
+        connectionProvider = new ConnectionProvider() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+            }
+        };
+        pool = new ForkJoinPool(4);
+
+        try (Connection connection = connectionProvider.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create table if not exists Item(id INTEGER primary key, value INTEGER)");
+            }
+            try (PreparedStatement statement = connection.prepareStatement("insert into Item values (?, ?)")) {
+                // 不连续的id
+                for (int i = 1; i <= 1000; i++) {
+                    statement.setLong(1, i * 3);
+                    statement.setLong(2, i);
+                    statement.executeUpdate();
+                }
+            }
+            connection.commit();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+        file.delete();
+    }
+
+    @Test
+    public void testSplit() {
+        final List<long[]> ranges = ParallelScanner.split(1, 10, 3);
+        assertEquals(3, ranges.size());
+        assertArrayEquals(new long[]{1, 4}, ranges.get(0));
+        assertArrayEquals(new long[]{5, 8}, ranges.get(1));
+        assertArrayEquals(new long[]{9, 10}, ranges.get(2));
+
+        assertEquals(2, ParallelScanner.split(5, 6, 8).size());
+        assertEquals(1, ParallelScanner.split(Long.MIN_VALUE, Long.MAX_VALUE, 1).size());
+        assertEquals(4, ParallelScanner.split(Long.MIN_VALUE, Long.MAX_VALUE, 4).size());
+    }
+
+    @Test
+    public void testScan() throws Exception {
+        final RowMapper<Long> rowMapper = new RowMapper<Long>() {
+            @Override
+            public Long map(final ResultSet resultSet) throws SQLException {
+                return resultSet.getLong(2);
+            }
+        };
+        final Combiner<Long, long[]> sum = new Combiner<Long, long[]>() {
+            @Override
+            public long[] create() {
+                return new long[2];
+            }
+
+            @Override
+            public long[] accumulate(final long[] result, final Long row) {
+                result[0]++;
+                result[1] += row;
+                return result;
+            }
+
+            @Override
+            public long[] combine(final long[] left, final long[] right) {
+                return new long[]{left[0] + right[0], left[1] + right[1]};
+            }
+        };
+
+        final JdbcRangeScan<Long> scan = new JdbcRangeScan<>(connectionProvider, "Item", rowMapper);
+        final long[] result = ParallelScanner.scan(scan, 4, sum, pool);
+        assertEquals(1000, result[0]);
+        assertEquals(500500, result[1]);
+
+        final JdbcRangeScan<Long> scanById = new JdbcRangeScan<>(connectionProvider, "Item", "id", rowMapper);
+        assertArrayEquals(result, ParallelScanner.scan(scanById, 7, sum, pool));
+    }
+
+    @Test
+    public void testScanIsReadOnly() throws Exception {
+        final RowMapper<Boolean> rowMapper = new RowMapper<Boolean>() {
+            @Override
+            public Boolean map(final ResultSet resultSet) throws SQLException {
+                // 在扫描的连接上写入, 应该失败
+                try (Statement statement = resultSet.getStatement().getConnection().createStatement()) {
+                    statement.executeUpdate("delete from Item");
+                    return true;
+                } catch (SQLException e) {
+                    return false;
+                }
+            }
+        };
+
+        final JdbcRangeScan<Boolean> scan = new JdbcRangeScan<>(connectionProvider, "Item", rowMapper);
+        final Boolean written = scan.scan(3, 3, new Combiner<Boolean, Boolean>() {
+            @Override
+            public Boolean create() {
+                return false;
+            }
+
+            @Override
+            public Boolean accumulate(final Boolean result, final Boolean row) {
+                return result || row;
+            }
+
+            @Override
+            public Boolean combine(final Boolean left, final Boolean right) {
+                return left || right;
+            }
+        });
+        assertFalse(written);
+        assertArrayEquals(new long[]{3, 3000}, scan.range());
+    }
+
+    @Test
+    public void testScanRestoresPooledConnection() throws Exception {
+        // 模拟只有一个连接的连接池: close 不真正关闭连接
+        try (final Connection pooled = connectionProvider.getConnection()) {
+            final ConnectionProvider pool = new ConnectionProvider() {
+                @Override
+                public Connection getConnection() {
+                    return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                            new Class<?>[]{Connection.class}, new InvocationHandler() {
+                                @Override
+                                public Object invoke(final Object proxy, final Method method, final Object[] args)
+                                        throws Throwable {
+                                    if (method.getName().equals("close")) {
+                                        return null;
+                                    }
+                                    try {
+                                        return method.invoke(pooled, args);
+                                    } catch (InvocationTargetException e) {
+                                        throw e.getCause();
+                                    }
+                                }
+                            });
+                }
+            };
+
+            final JdbcRangeScan<Long> scan = new JdbcRangeScan<>(pool, "Item", new RowMapper<Long>() {
+                @Override
+                public Long map(final ResultSet resultSet) throws SQLException {
+                    return resultSet.getLong(1);
+                }
+            });
+            assertArrayEquals(new long[]{3, 3000}, scan.range());
+            assertEquals(Long.valueOf(3), scan.scan(3, 3, new Combiner<Long, Long>() {
+                @Override
+                public Long create() {
+                    return 0L;
+                }
+
+                @Override
+                public Long accumulate(final Long result, final Long row) {
+                    return result + row;
+                }
+
+                @Override
+                public Long combine(final Long left, final Long right) {
+                    return left + right;
+                }
+            }));
+
+            // 归还到连接池之后, 连接仍然可以写入
+            try (Statement statement = pooled.createStatement()) {
+                assertEquals(1, statement.executeUpdate("delete from Item where id = 3"));
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.shuaqiu.sqlighter.util;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test
+ */
+public class ColumnCompressionTest {
+
+    @Test
+    public void testCompress() {
+        assertNull(ColumnCompression.compress(null));
+        assertNull(ColumnCompression.decompress(null));
+
+        // 小的值不压缩
+        final byte[] small = ColumnCompression.compress("{\"a\":1}");
+        assertEquals(ColumnCompression.RAW, small[0]);
+        assertEquals("{\"a\":1}", ColumnCompression.decompress(small));
+
+        final StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 200; i++) {
+            json.append("{\"id\":").append(i).append(",\"status\":\"active\",\"名称\":\"测试\"},");
+        }
+        json.append("{}]");
+        final byte[] compressed = ColumnCompression.compress(json.toString());
+        assertEquals(ColumnCompression.DEFLATE, compressed[0]);
+        assertTrue(compressed.length * 5 < json.length());
+        assertEquals(json.toString(), ColumnCompression.decompress(compressed));
+
+        // 随机数据压缩后不会变小, 不压缩
+        final Random random = new Random(1);
+        final StringBuilder noise = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            noise.append((char) (0x4e00 + random.nextInt(0x5000)));
+        }
+        final byte[] incompressible = ColumnCompression.compress(noise.toString());
+        assertEquals(noise.toString(), ColumnCompression.decompress(incompressible));
+
+        // 没有头部的TEXT, 只用于兼容生成的代码之外写入的值
+        assertEquals("plain", ColumnCompression.decompress("plain".getBytes()));
+    }
+
+    @Test
+    public void testCorruptedLength() {
+        final StringBuilder json = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            json.append("{\"id\":").append(i).append("},");
+        }
+        final byte[] compressed = ColumnCompression.compress(json.toString());
+        assertEquals(ColumnCompression.DEFLATE, compressed[0]);
+
+        // 小于压缩数据的长度
+        assertCorrupted(withLength(compressed, 1));
+        // 负数
+        assertCorrupted(withLength(compressed, -1));
+        // 超过最大长度
+        assertCorrupted(withLength(compressed, ColumnCompression.MAX_LENGTH + 1));
+        // 超过deflate 的最大压缩比
+        assertCorrupted(withLength(compressed, compressed.length * 2000));
+    }
+
+    @Test
+    public void testLargeValue() {
+        // 超过保留的缓冲区大小, 使用临时数组, 结果不受影响
+        final StringBuilder json = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            json.append("{\"id\":").append(i).append("},");
+        }
+        final byte[] compressed = ColumnCompression.compress(json.toString());
+        assertEquals(ColumnCompression.DEFLATE, compressed[0]);
+        assertEquals(json.toString(), ColumnCompression.decompress(compressed));
+    }
+
+    private static byte[] withLength(final byte[] compressed, final int length) {
+        final byte[] data = compressed.clone();
+        data[1] = (byte) (length >>> 24);
+        data[2] = (byte) (length >>> 16);
+        data[3] = (byte) (length >>> 8);
+        data[4] = (byte) length;
+        return data;
+    }
+
+    private static void assertCorrupted(final byte[] data) {
+        try {
+            ColumnCompression.decompress(data);
+            fail("corrupted length should be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().startsWith("corrupted compressed column"));
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.shuaqiu.sqlighter.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test
+ */
+public class StringDictionaryTest {
+
+    @Test
+    public void testIntern() {
+        final StringDictionary dictionary = new StringDictionary(2);
+
+        final String active = dictionary.intern(new String("active"));
+        assertSame(active, dictionary.intern(new String("active")));
+        assertNull(dictionary.intern(null));
+
+        dictionary.intern("closed");
+        assertEquals(2, dictionary.size());
+
+        // 已满, 不再加入
+        final String deleted = new String("deleted");
+        assertSame(deleted, dictionary.intern(deleted));
+        assertEquals(2, dictionary.size());
+    }
+}
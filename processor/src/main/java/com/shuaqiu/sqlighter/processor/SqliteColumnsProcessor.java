@@ -0,0 +1,229 @@
+package com.shuaqiu.sqlighter.processor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.Processor;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+
+import com.google.auto.service.AutoService;
+import com.shuaqiu.sqlighter.SqliteColumn;
+import com.shuaqiu.sqlighter.SqliteTable;
+import com.shuaqiu.sqlighter.meta.Column;
+import com.shuaqiu.sqlighter.processor.util.SqliteSchemaUtils;
+import com.shuaqiu.sqlighter.processor.util.StringUtils;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+
+/**
+ * 字段元数据的代码生成: 每个字段一个{@link Column} 常量, 以及预先拼接好的字段列表, 占位符等SQL 片段.
+ * 生成的类中只暴露不可修改的对象, 数组通过返回副本的方法提供
+ */
+@AutoService(Processor.class)
+public class SqliteColumnsProcessor extends SqliteProcessor {
+
+    private static final String SUFFIX = "Columns";
+
+    private static final String TABLE = "TABLE";
+    private static final String ALL = "ALL";
+    private static final String PROJECTION = "PROJECTION";
+    private static final String COLUMN_LIST = "COLUMN_LIST";
+    private static final String PLACEHOLDERS = "PLACEHOLDERS";
+
+    @Override
+    protected String getSuffix() {
+        return SUFFIX;
+    }
+
+    /**
+     * 字段定义
+     *
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @return 字段定义
+     * @throws ProcessingException 字段名对应的常量名与固定的常量名冲突
+     */
+    @Override
+    protected FieldSpec[] buildFieldSpecs(final TypeElement classElement) throws ProcessingException {
+        final List<VariableElement> fields = SqliteSchemaUtils.getColumnFields(typeUtils, classElement);
+        final VariableElement idField = SqliteSchemaUtils.getIdField(typeUtils, classElement);
+
+        final List<FieldSpec> fieldSpecs = new ArrayList<>();
+
+        final String tableName = SqliteSchemaUtils.getTableName(classElement);
+        fieldSpecs.add(buildStringFieldSpec(TABLE, tableName));
+
+        final Set<String> reserved = new HashSet<>();
+        reserved.add(TABLE);
+        reserved.add(ALL);
+        reserved.add(PROJECTION);
+        reserved.add(COLUMN_LIST);
+        reserved.add(PLACEHOLDERS);
+
+        final List<String> constantNames = new ArrayList<>(fields.size());
+        final List<String> columnNames = new ArrayList<>(fields.size());
+        final StringBuilder columnList = new StringBuilder();
+        final StringBuilder placeholders = new StringBuilder();
+
+        for (int ordinal = 0; ordinal < fields.size(); ordinal++) {
+            final VariableElement field = fields.get(ordinal);
+            final String columnName = field.getSimpleName().toString();
+
+            final String constantName = StringUtils.toConstantName(columnName);
+            if (!reserved.add(constantName)) {
+                final String msg = "The field %s conflicts with the generated constant %s";
+                throw new ProcessingException(field, msg, columnName, constantName);
+            }
+            constantNames.add(constantName);
+            columnNames.add(columnName);
+
+            fieldSpecs.add(buildColumnFieldSpec(classElement, constantName, field, ordinal, field == idField));
+
+            if (ordinal > 0) {
+                columnList.append(", ");
+                placeholders.append(", ");
+            }
+            columnList.append(columnName);
+            placeholders.append("?");
+        }
+
+        fieldSpecs.add(buildAllFieldSpec(constantNames));
+        fieldSpecs.add(buildProjectionFieldSpec(columnNames));
+        fieldSpecs.add(buildStringFieldSpec(COLUMN_LIST, columnList.toString()));
+        fieldSpecs.add(buildStringFieldSpec(PLACEHOLDERS, placeholders.toString()));
+
+        return fieldSpecs.toArray(new FieldSpec[fieldSpecs.size()]);
+    }
+
+    /**
+     * 方法定义: 私有的构造函数, 以及返回projection 副本的方法
+     *
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @return 方法定义
+     */
+    @Override
+    protected MethodSpec[] buildMethodSpecs(final TypeElement classElement) {
+        final MethodSpec.Builder constructorBuilder = MethodSpec.constructorBuilder();
+        constructorBuilder.addModifiers(Modifier.PRIVATE);
+        return new MethodSpec[]{constructorBuilder.build(), buildProjectionMethodSpec()};
+    }
+
+    /**
+     * 字段对应的{@link Column} 常量
+     *
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @param constantName 常量名
+     * @param field        字段元素
+     * @param ordinal      在表中的位置
+     * @param primaryKey   是否为主键
+     * @return 字段定义
+     */
+    private FieldSpec buildColumnFieldSpec(final TypeElement classElement, final String constantName,
+                                           final VariableElement field, final int ordinal, final boolean primaryKey) {
+        final String columnName = field.getSimpleName().toString();
+        final String sqlType = SqliteSchemaUtils.getColumnType(typeUtils, field);
+        // 与Schema 中的约束一致, 基本类型的字段在Schema 中仍然可以为null
+        final boolean nullable = !SqliteSchemaUtils.isSchemaNotNull(typeUtils, classElement, field);
+
+        // 与Schema 一致, 主键上不会生成唯一约束
+        final SqliteColumn sqliteColumn = field.getAnnotation(SqliteColumn.class);
+        final boolean unique = !primaryKey && sqliteColumn != null && sqliteColumn.unique();
+
+        final FieldSpec.Builder fieldBuilder = FieldSpec.builder(Column.class, constantName);
+        fieldBuilder.addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL);
+        fieldBuilder.initializer("new $T($S, $S, $L, $L, $L, $L)", Column.class,
+                columnName, sqlType, ordinal, nullable, primaryKey, unique);
+        return fieldBuilder.build();
+    }
+
+    /**
+     * 所有字段的{@link Column} 的不可修改的List, 顺序与表中一致
+     *
+     * @param constantNames 字段的常量名
+     * @return 字段定义
+     */
+    private FieldSpec buildAllFieldSpec(final List<String> constantNames) {
+        final ParameterizedTypeName listType = ParameterizedTypeName.get(List.class, Column.class);
+        final FieldSpec.Builder fieldBuilder = FieldSpec.builder(listType, ALL);
+        fieldBuilder.addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL);
+        fieldBuilder.addJavadoc("所有字段, 顺序与表中一致, 不可修改\n");
+
+        final CodeBlock.Builder codeBuilder = CodeBlock.builder();
+        codeBuilder.add("$T.unmodifiableList($T.asList(", Collections.class, Arrays.class);
+        for (int i = 0; i < constantNames.size(); i++) {
+            codeBuilder.add(i == 0 ? "$L" : ", $L", constantNames.get(i));
+        }
+        codeBuilder.add("))");
+        fieldBuilder.initializer(codeBuilder.build());
+        return fieldBuilder.build();
+    }
+
+    /**
+     * 所有字段名的数组, 私有, 通过{@link #buildProjectionMethodSpec()} 返回副本
+     *
+     * @param columnNames 字段名
+     * @return 字段定义
+     */
+    private FieldSpec buildProjectionFieldSpec(final List<String> columnNames) {
+        final FieldSpec.Builder fieldBuilder = FieldSpec.builder(String[].class, PROJECTION);
+        fieldBuilder.addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL);
+        fieldBuilder.initializer(buildArrayInitializer(String.class, "$S", columnNames));
+        return fieldBuilder.build();
+    }
+
+    /**
+     * projection 的方法定义: 返回所有字段名的数组的副本, 可以直接作为query 的projection.
+     * SQLiteDatabase.query 需要数组, 所以不使用List, 而是每次返回副本, 调用方修改也不会影响其他地方
+     *
+     * @return 方法定义
+     */
+    private MethodSpec buildProjectionMethodSpec() {
+        final MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("projection");
+        methodBuilder.addModifiers(Modifier.PUBLIC, Modifier.STATIC);
+        methodBuilder.returns(String[].class);
+        methodBuilder.addJavadoc("所有字段名, 顺序与表中一致, 可以直接作为query 的projection, 与fromCursor 的字段下标一致.\n"
+                + "每次返回新的数组\n");
+        methodBuilder.addStatement("return $L.clone()", PROJECTION);
+        return methodBuilder.build();
+    }
+
+    /**
+     * 数组的初始化语句: new Xxx[]{a, b, ...}
+     *
+     * @param componentType 数组元素的类型
+     * @param format        元素的格式, $L 或$S
+     * @param elements      数组元素
+     * @return 初始化语句
+     */
+    private CodeBlock buildArrayInitializer(final Class<?> componentType, final String format,
+                                            final List<String> elements) {
+        final CodeBlock.Builder codeBuilder = CodeBlock.builder();
+        codeBuilder.add("new $T[]{", componentType);
+        for (int i = 0; i < elements.size(); i++) {
+            codeBuilder.add(i == 0 ? format : ", " + format, elements.get(i));
+        }
+        codeBuilder.add("}");
+        return codeBuilder.build();
+    }
+
+    /**
+     * 字符串常量
+     *
+     * @param name  常量名
+     * @param value 常量值
+     * @return 字段定义
+     */
+    private FieldSpec buildStringFieldSpec(final String name, final String value) {
+        final FieldSpec.Builder fieldBuilder = FieldSpec.builder(String.class, name);
+        fieldBuilder.addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL);
+        fieldBuilder.initializer("$S", value);
+        return fieldBuilder.build();
+    }
+}
@@ -0,0 +1,400 @@
+package com.shuaqiu.sqlighter.processor;
+
+import java.lang.annotation.Annotation;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.processing.Processor;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+
+import com.google.auto.service.AutoService;
+import com.shuaqiu.sqlighter.SqliteDatabase;
+import com.shuaqiu.sqlighter.SqliteTable;
+import com.shuaqiu.sqlighter.plan.QueryPlanChecker;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+
+/**
+ * SQLite 数据库的配置代码生成: 按顺序设置PRAGMA, 检查是否生效, 创建所有的表, 以及检查查询计划
+ */
+@AutoService(Processor.class)
+public class SqliteDatabaseProcessor extends SqliteProcessor {
+
+    private static final String SUFFIX = "Helper";
+
+    private static final ClassName CURSOR = ClassName.get("android.database", "Cursor");
+    private static final ClassName SQLITE_DATABASE = ClassName.get("android.database.sqlite", "SQLiteDatabase");
+    private static final ClassName LOG = ClassName.get("android.util", "Log");
+    private static final ClassName BUILD_VERSION = ClassName.get("android.os", "Build", "VERSION");
+
+    /** SQLiteDatabase.execPerConnectionSQL 从Android 11 (API 30) 开始提供 */
+    private static final int PER_CONNECTION_SQL_SDK = 30;
+
+    @Override
+    protected Class<? extends Annotation> getAnnotationType() {
+        return SqliteDatabase.class;
+    }
+
+    @Override
+    protected String getSuffix() {
+        return SUFFIX;
+    }
+
+    /**
+     * 字段定义: 日志的TAG
+     *
+     * @param classElement 当前的{@link SqliteDatabase } 标记的Element
+     * @return 字段定义
+     */
+    @Override
+    protected FieldSpec[] buildFieldSpecs(final TypeElement classElement) {
+        final FieldSpec.Builder fieldBuilder = FieldSpec.builder(String.class, "TAG");
+        fieldBuilder.addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL);
+        fieldBuilder.initializer("$S", classElement.getSimpleName().toString());
+        return new FieldSpec[]{fieldBuilder.build()};
+    }
+
+    /**
+     * 方法定义
+     *
+     * @param classElement 当前的{@link SqliteDatabase } 标记的Element
+     * @return 方法定义
+     * @throws ProcessingException tables 中有不是{@link SqliteTable} 标记的类
+     */
+    @Override
+    protected MethodSpec[] buildMethodSpecs(final TypeElement classElement) throws ProcessingException {
+        final SqliteDatabase sqliteDatabase = classElement.getAnnotation(SqliteDatabase.class);
+        final List<TypeElement> tables = getTables(classElement);
+
+        return new MethodSpec[]{
+                buildConstructor(),
+                buildConfigureMethodSpec(sqliteDatabase),
+                buildVerifyMethodSpec(sqliteDatabase),
+                buildCreateTablesMethodSpec(tables),
+                buildCheckQueryPlansMethodSpec(tables),
+                buildPragmaMethodSpec(),
+                buildPerConnectionPragmaMethodSpec(),
+                buildCheckPragmaMethodSpec()
+        };
+    }
+
+    /**
+     * 获取{@link SqliteDatabase#tables()} 中的类. 编译期不能直接读取Class 的值, 需要通过AnnotationMirror 获取
+     *
+     * @param classElement 当前的{@link SqliteDatabase } 标记的Element
+     * @return 表对应的类
+     * @throws ProcessingException 有不是{@link SqliteTable} 标记的类
+     */
+    private List<TypeElement> getTables(final TypeElement classElement) throws ProcessingException {
+        final List<TypeElement> tables = new ArrayList<>();
+
+        for (final AnnotationMirror annotationMirror : classElement.getAnnotationMirrors()) {
+            final TypeElement annotationElement = (TypeElement) annotationMirror.getAnnotationType().asElement();
+            if (!annotationElement.getQualifiedName().contentEquals(SqliteDatabase.class.getCanonicalName())) {
+                continue;
+            }
+
+            final Map<? extends ExecutableElement, ? extends AnnotationValue> values = annotationMirror.getElementValues();
+            for (final Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+                if (!entry.getKey().getSimpleName().contentEquals("tables")) {
+                    continue;
+                }
+
+                @SuppressWarnings("unchecked")
+                final List<? extends AnnotationValue> classValues = (List<? extends AnnotationValue>) entry.getValue().getValue();
+                for (final AnnotationValue classValue : classValues) {
+                    final TypeElement tableElement = (TypeElement) typeUtils.asElement((TypeMirror) classValue.getValue());
+                    if (tableElement.getAnnotation(SqliteTable.class) == null) {
+                        final String msg = "The class %s in @%s.tables is not annotated with @%s";
+                        throw new ProcessingException(classElement, msg, tableElement.getQualifiedName(),
+                                SqliteDatabase.class.getSimpleName(), SqliteTable.class.getSimpleName());
+                    }
+                    tables.add(tableElement);
+                }
+            }
+        }
+
+        return tables;
+    }
+
+    /**
+     * 构造私有的默认构造函数
+     *
+     * @return 私有的默认构造函数
+     */
+    private MethodSpec buildConstructor() {
+        final MethodSpec.Builder constructorBuilder = MethodSpec.constructorBuilder();
+        constructorBuilder.addModifiers(Modifier.PRIVATE);
+        return constructorBuilder.build();
+    }
+
+    /**
+     * configure 的方法定义, 一般在SQLiteOpenHelper.onConfigure 中调用.
+     * page_size 要在切换到WAL 之前设置, 因为WAL 模式下不能再修改页大小
+     * <p>
+     * page_size, journal_mode 是数据库级别的设置; synchronous, cache_size, mmap_size, temp_store 则是每个连接各自的设置.
+     * WAL 模式下Android 的连接池会另外打开只读连接, 所以这些设置通过perConnectionPragma 执行:
+     * API 30 及以上使用execPerConnectionSQL 作用于所有连接(包括之后新建的连接), 更低的版本只能作用于主连接.
+     * mmap_size 设置后会返回一行结果, execPerConnectionSQL 不能执行有返回结果的语句, 所以只能通过rawQuery 作用于主连接
+     *
+     * @param sqliteDatabase 数据库的注解
+     * @return 方法定义
+     */
+    private MethodSpec buildConfigureMethodSpec(final SqliteDatabase sqliteDatabase) {
+        final MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("configure");
+        methodBuilder.addModifiers(Modifier.PUBLIC, Modifier.STATIC);
+        methodBuilder.returns(boolean.class);
+
+        methodBuilder.addParameter(SQLITE_DATABASE, "db", Modifier.FINAL);
+
+        if (sqliteDatabase.pageSize() > 0) {
+            methodBuilder.addStatement("pragma(db, $S, $S)", "page_size", String.valueOf(sqliteDatabase.pageSize()));
+        }
+
+        if (sqliteDatabase.journalMode() == SqliteDatabase.JournalMode.WAL) {
+            // Android 需要通过enableWriteAheadLogging 开启WAL, 连接池才会使用多个连接
+            methodBuilder.addStatement("db.enableWriteAheadLogging()");
+        } else {
+            methodBuilder.addStatement("pragma(db, $S, $S)", "journal_mode", sqliteDatabase.journalMode().name());
+        }
+
+        methodBuilder.addStatement("perConnectionPragma(db, $S, $S)", "synchronous", sqliteDatabase.synchronous().name());
+
+        if (sqliteDatabase.cacheSize() != 0) {
+            methodBuilder.addStatement("perConnectionPragma(db, $S, $S)", "cache_size", String.valueOf(sqliteDatabase.cacheSize()));
+        }
+
+        if (sqliteDatabase.mmapSize() >= 0) {
+            // mmap_size 会返回一行结果, 不能用execPerConnectionSQL
+            methodBuilder.addStatement("pragma(db, $S, $S)", "mmap_size", String.valueOf(sqliteDatabase.mmapSize()));
+        }
+
+        if (sqliteDatabase.tempStore() != SqliteDatabase.TempStore.DEFAULT) {
+            methodBuilder.addStatement("perConnectionPragma(db, $S, $S)", "temp_store", sqliteDatabase.tempStore().name());
+        }
+
+        methodBuilder.addStatement("return verify(db)");
+
+        methodBuilder.addJavadoc("synchronous, cache_size and temp_store apply to every pooled connection on API $L+,\n"
+                + "below that they only reach the primary connection.\n"
+                + "mmap_size returns a row, which execPerConnectionSQL rejects, so it only reaches the primary connection.\n",
+                PER_CONNECTION_SQL_SDK);
+
+        return methodBuilder.build();
+    }
+
+    /**
+     * verify 的方法定义: 逐个查询PRAGMA, 与期望值不一致的打印警告日志
+     *
+     * @param sqliteDatabase 数据库的注解
+     * @return 方法定义
+     */
+    private MethodSpec buildVerifyMethodSpec(final SqliteDatabase sqliteDatabase) {
+        final MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("verify");
+        methodBuilder.addModifiers(Modifier.PUBLIC, Modifier.STATIC);
+        methodBuilder.returns(boolean.class);
+
+        methodBuilder.addParameter(SQLITE_DATABASE, "db", Modifier.FINAL);
+
+        methodBuilder.addStatement("boolean ok = true");
+
+        if (sqliteDatabase.pageSize() > 0) {
+            methodBuilder.addStatement("ok &= checkPragma(db, $S, $S)", "page_size", String.valueOf(sqliteDatabase.pageSize()));
+        }
+
+        methodBuilder.addStatement("ok &= checkPragma(db, $S, $S)", "journal_mode", sqliteDatabase.journalMode().name());
+
+        // synchronous, temp_store 查询时返回的是序号
+        methodBuilder.addStatement("ok &= checkPragma(db, $S, $S)", "synchronous",
+                String.valueOf(sqliteDatabase.synchronous().ordinal()));
+
+        if (sqliteDatabase.cacheSize() != 0) {
+            methodBuilder.addStatement("ok &= checkPragma(db, $S, $S)", "cache_size", String.valueOf(sqliteDatabase.cacheSize()));
+        }
+
+        if (sqliteDatabase.mmapSize() >= 0) {
+            methodBuilder.addStatement("ok &= checkPragma(db, $S, $S)", "mmap_size", String.valueOf(sqliteDatabase.mmapSize()));
+        }
+
+        if (sqliteDatabase.tempStore() != SqliteDatabase.TempStore.DEFAULT) {
+            methodBuilder.addStatement("ok &= checkPragma(db, $S, $S)", "temp_store",
+                    String.valueOf(sqliteDatabase.tempStore().ordinal()));
+        }
+
+        methodBuilder.addStatement("return ok");
+
+        return methodBuilder.build();
+    }
+
+    /**
+     * createTables 的方法定义, 一般在SQLiteOpenHelper.onCreate 中调用
+     *
+     * @param tables 表对应的类
+     * @return 方法定义
+     */
+    private MethodSpec buildCreateTablesMethodSpec(final List<TypeElement> tables) {
+        final MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("createTables");
+        methodBuilder.addModifiers(Modifier.PUBLIC, Modifier.STATIC);
+
+        methodBuilder.addParameter(SQLITE_DATABASE, "db", Modifier.FINAL);
+
+        for (final TypeElement table : tables) {
+            final ClassName utilsClassName = getUtilsClassName(table);
+            methodBuilder.addStatement("db.execSQL($T.schema())", utilsClassName);
+            if (table.getAnnotation(SqliteTable.class).trackChanges()) {
+                methodBuilder.beginControlFlow("for (final String ddl : $T.changeLogSchema())", utilsClassName);
+                methodBuilder.addStatement("db.execSQL(ddl)");
+                methodBuilder.endControlFlow();
+            }
+        }
+
+        return methodBuilder.build();
+    }
+
+    /**
+     * checkQueryPlans 的方法定义: 在给定的连接(一般为测试中的内存数据库)中创建所有的表,
+     * 再检查每个表生成的查询语句, 以及调用方传入的查询语句的查询计划
+     *
+     * @param tables 表对应的类
+     * @return 方法定义
+     */
+    private MethodSpec buildCheckQueryPlansMethodSpec(final List<TypeElement> tables) {
+        final MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("checkQueryPlans");
+        methodBuilder.addModifiers(Modifier.PUBLIC, Modifier.STATIC);
+        methodBuilder.returns(ParameterizedTypeName.get(List.class, String.class));
+
+        methodBuilder.addParameter(Connection.class, "connection", Modifier.FINAL);
+        methodBuilder.addParameter(String[].class, "queries", Modifier.FINAL);
+        methodBuilder.varargs();
+        methodBuilder.addException(SQLException.class);
+
+        methodBuilder.addJavadoc("queries are the application's own statements, checked together with the generated ones.\n");
+
+        methodBuilder.addStatement("final $T checker = new $T(connection)", QueryPlanChecker.class, QueryPlanChecker.class);
+        for (final TypeElement table : tables) {
+            final ClassName utilsClassName = getUtilsClassName(table);
+            methodBuilder.addStatement("checker.execute($T.schema())", utilsClassName);
+            if (table.getAnnotation(SqliteTable.class).trackChanges()) {
+                methodBuilder.beginControlFlow("for (final String ddl : $T.changeLogSchema())", utilsClassName);
+                methodBuilder.addStatement("checker.execute(ddl)");
+                methodBuilder.endControlFlow();
+            }
+            if (table.getAnnotation(SqliteTable.class).large()) {
+                methodBuilder.addStatement("checker.markLarge($T.getTableName())", utilsClassName);
+            }
+        }
+
+        methodBuilder.addStatement("final $T<String> problems = new $T<>()", List.class, ArrayList.class);
+        for (final TypeElement table : tables) {
+            methodBuilder.addStatement("problems.addAll(checker.check($T.asList($T.getQueries())))",
+                    Arrays.class, getUtilsClassName(table));
+        }
+        methodBuilder.addStatement("problems.addAll(checker.check($T.asList(queries)))", Arrays.class);
+        methodBuilder.addStatement("return problems");
+
+        return methodBuilder.build();
+    }
+
+    /**
+     * pragma 的方法定义. 部分PRAGMA (如journal_mode) 会返回结果, 不能用execSQL, 所以统一用rawQuery
+     *
+     * @return 方法定义
+     */
+    private MethodSpec buildPragmaMethodSpec() {
+        final MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("pragma");
+        methodBuilder.addModifiers(Modifier.PRIVATE, Modifier.STATIC);
+
+        methodBuilder.addParameter(SQLITE_DATABASE, "db", Modifier.FINAL);
+        methodBuilder.addParameter(String.class, "name", Modifier.FINAL);
+        methodBuilder.addParameter(String.class, "value", Modifier.FINAL);
+
+        methodBuilder.addStatement("final $T cursor = db.rawQuery($S + name + $S + value, null)", CURSOR, "PRAGMA ", " = ");
+        methodBuilder.beginControlFlow("try");
+        methodBuilder.addStatement("cursor.moveToFirst()");
+        methodBuilder.nextControlFlow("finally");
+        methodBuilder.addStatement("cursor.close()");
+        methodBuilder.endControlFlow();
+
+        return methodBuilder.build();
+    }
+
+    /**
+     * perConnectionPragma 的方法定义: 设置每个连接各自的PRAGMA.
+     * API 30 及以上通过execPerConnectionSQL 在所有连接上执行, 更低的版本只能在主连接上执行.
+     * execPerConnectionSQL 不接受有返回结果的语句, 所以只能用于设置后不返回结果的PRAGMA
+     *
+     * @return 方法定义
+     */
+    private MethodSpec buildPerConnectionPragmaMethodSpec() {
+        final MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("perConnectionPragma");
+        methodBuilder.addModifiers(Modifier.PRIVATE, Modifier.STATIC);
+
+        methodBuilder.addParameter(SQLITE_DATABASE, "db", Modifier.FINAL);
+        methodBuilder.addParameter(String.class, "name", Modifier.FINAL);
+        methodBuilder.addParameter(String.class, "value", Modifier.FINAL);
+
+        methodBuilder.beginControlFlow("if ($T.SDK_INT >= $L)", BUILD_VERSION, PER_CONNECTION_SQL_SDK);
+        methodBuilder.addCode("// runs on all pooled connections, including the ones opened later\n");
+        methodBuilder.addStatement("db.execPerConnectionSQL($S + name + $S + value, null)", "PRAGMA ", " = ");
+        methodBuilder.nextControlFlow("else");
+        methodBuilder.addCode("// only the primary connection, the pooled read-only connections keep the defaults\n");
+        methodBuilder.addStatement("pragma(db, name, value)");
+        methodBuilder.endControlFlow();
+
+        return methodBuilder.build();
+    }
+
+    /**
+     * checkPragma 的方法定义: 查询PRAGMA 的当前值, 与期望值不一致(忽略大小写)时打印警告日志
+     *
+     * @return 方法定义
+     */
+    private MethodSpec buildCheckPragmaMethodSpec() {
+        final MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("checkPragma");
+        methodBuilder.addModifiers(Modifier.PRIVATE, Modifier.STATIC);
+        methodBuilder.returns(boolean.class);
+
+        methodBuilder.addParameter(SQLITE_DATABASE, "db", Modifier.FINAL);
+        methodBuilder.addParameter(String.class, "name", Modifier.FINAL);
+        methodBuilder.addParameter(String.class, "expected", Modifier.FINAL);
+
+        methodBuilder.addStatement("final String actual");
+        methodBuilder.addStatement("final $T cursor = db.rawQuery($S + name, null)", CURSOR, "PRAGMA ");
+        methodBuilder.beginControlFlow("try");
+        methodBuilder.addStatement("actual = cursor.moveToFirst() ? cursor.getString(0) : null");
+        methodBuilder.nextControlFlow("finally");
+        methodBuilder.addStatement("cursor.close()");
+        methodBuilder.endControlFlow();
+
+        methodBuilder.beginControlFlow("if (!expected.equalsIgnoreCase(actual))");
+        methodBuilder.addStatement("$T.w(TAG, $S + name + $S + expected + $S + actual)", LOG,
+                "PRAGMA ", " did not take effect, expected: ", ", actual: ");
+        methodBuilder.addStatement("return false");
+        methodBuilder.endControlFlow();
+        methodBuilder.addStatement("return true");
+
+        return methodBuilder.build();
+    }
+
+    /**
+     * 获取表对应的XxxUtils 类名, 与{@link SqliteUtilsProcessor} 生成的类一致
+     *
+     * @param table 表对应的类
+     * @return XxxUtils 类名
+     */
+    private ClassName getUtilsClassName(final TypeElement table) {
+        final ClassName tableClassName = ClassName.get(table);
+        return ClassName.get(tableClassName.packageName(), table.getSimpleName() + SqliteUtilsProcessor.SUFFIX);
+    }
+}
@@ -1,6 +1,7 @@
 package com.shuaqiu.sqlighter.processor;
 
 import java.io.IOException;
+import java.lang.annotation.Annotation;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -20,6 +21,7 @@ import javax.lang.model.util.Types;
 import javax.tools.Diagnostic;
 
 import com.shuaqiu.sqlighter.SqliteTable;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.TypeSpec;
@@ -48,10 +50,19 @@ public abstract class SqliteProcessor extends AbstractProcessor {
     @Override
     public Set<String> getSupportedAnnotationTypes() {
         final Set<String> types = new HashSet<>(3);
-        types.add(SqliteTable.class.getCanonicalName());
+        types.add(getAnnotationType().getCanonicalName());
         return types;
     }
 
+    /**
+     * 获取需要处理的注解类型(默认为{@link SqliteTable})
+     *
+     * @return 需要处理的注解类型
+     */
+    protected Class<? extends Annotation> getAnnotationType() {
+        return SqliteTable.class;
+    }
+
     @Override
     public SourceVersion getSupportedSourceVersion() {
         return SourceVersion.latestSupported();
@@ -61,8 +72,8 @@ public abstract class SqliteProcessor extends AbstractProcessor {
     public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
         try {
             // Scan classes
-            for (final Element annotatedElement : roundEnv.getElementsAnnotatedWith(SqliteTable.class)) {
-                // 检查由SqliteTable 标记的对象是否是符合要求的类
+            for (final Element annotatedElement : roundEnv.getElementsAnnotatedWith(getAnnotationType())) {
+                // 检查由注解标记的对象是否是符合要求的类
                 final TypeElement typeElement = checkValidElement(annotatedElement);
 
                 // 如果OK, 则生成对应的代码
@@ -83,9 +94,9 @@ public abstract class SqliteProcessor extends AbstractProcessor {
      */
     private TypeElement checkValidElement(final Element annotatedElement) throws ProcessingException {
 
-        final String annotationName = SqliteTable.class.getSimpleName();
+        final String annotationName = getAnnotationType().getSimpleName();
 
-        // 检查由@SqliteTable 标记的是否是一个类
+        // 检查由注解标记的是否是一个类
         if (annotatedElement.getKind() != ElementKind.CLASS) {
             final String msg = "Only classes can be annotated with @%s";
             throw new ProcessingException(annotatedElement, msg, annotationName);
@@ -114,17 +125,21 @@ public abstract class SqliteProcessor extends AbstractProcessor {
      * 生成类
      *
      * @param classElement 当前的{@link SqliteTable } 标记的Element, 生成的构造类将位于同一个包下面
-     * @throws IOException 写文件出现异常
+     * @throws IOException         写文件出现异常
+     * @throws ProcessingException 注解的内容不符合要求
      */
-    private void generateCode(final TypeElement classElement) throws IOException {
+    private void generateCode(final TypeElement classElement) throws IOException, ProcessingException {
         // Schema Builder 的名称, 类名
         final String className = classElement.getSimpleName() + getSuffix();
 
+        // 生成字段定义
+        final FieldSpec[] fieldSpecs = buildFieldSpecs(classElement);
+
         // 生成方法定义
         final MethodSpec[] methodSpecs = buildMethodSpecs(classElement);
 
         // 生成类定义
-        final TypeSpec factoryClass = buildTypeSpec(className, methodSpecs);
+        final TypeSpec factoryClass = buildTypeSpec(className, fieldSpecs, methodSpecs);
 
         // 生成Java 文件
         final JavaFile javaFile = buildJavaFile(elementUtils, classElement, factoryClass);
@@ -138,25 +153,45 @@ public abstract class SqliteProcessor extends AbstractProcessor {
      */
     protected abstract String getSuffix();
 
+    /**
+     * 生成字段定义(默认没有字段)
+     *
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @return 字段定义
+     * @throws ProcessingException 注解的内容不符合要求
+     */
+    protected FieldSpec[] buildFieldSpecs(final TypeElement classElement) throws ProcessingException {
+        return null;
+    }
+
     /**
      * 生成方法定义
      *
      * @param classElement 当前的{@link SqliteTable } 标记的Element
      * @return 方法定义
+     * @throws ProcessingException 注解的内容不符合要求
      */
-    protected abstract MethodSpec[] buildMethodSpecs(final TypeElement classElement);
+    protected abstract MethodSpec[] buildMethodSpecs(final TypeElement classElement) throws ProcessingException;
 
     /**
      * 生成类定义
      *
      * @param className   类名
+     * @param fieldSpecs  字段定义
      * @param methodSpecs 方法定义
      * @return 类定义
      */
-    private TypeSpec buildTypeSpec(final String className, final MethodSpec... methodSpecs) {
+    private TypeSpec buildTypeSpec(final String className, final FieldSpec[] fieldSpecs, final MethodSpec... methodSpecs) {
         final TypeSpec.Builder classBuilder = TypeSpec.classBuilder(className);
         classBuilder.addModifiers(Modifier.PUBLIC, Modifier.FINAL);
 
+        // 添加字段
+        if (fieldSpecs != null && fieldSpecs.length > 0) {
+            for (final FieldSpec fieldSpec : fieldSpecs) {
+                classBuilder.addField(fieldSpec);
+            }
+        }
+
         // 添加方法
         if (methodSpecs != null && methodSpecs.length > 0) {
             for (final MethodSpec methodSpec : methodSpecs) {
@@ -1,6 +1,13 @@
 package com.shuaqiu.sqlighter.processor;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import javax.annotation.processing.Processor;
 import javax.lang.model.element.Modifier;
@@ -9,13 +16,26 @@ import javax.lang.model.element.VariableElement;
 
 import com.google.auto.service.AutoService;
 import com.shuaqiu.sqlighter.SqliteColumn;
+import com.shuaqiu.sqlighter.SqliteId;
 import com.shuaqiu.sqlighter.SqliteTable;
+import com.shuaqiu.sqlighter.observe.InvalidationBus;
 import com.shuaqiu.sqlighter.processor.util.FieldUtils;
 import com.shuaqiu.sqlighter.processor.util.SqliteSchemaUtils;
 import com.shuaqiu.sqlighter.processor.util.StringUtils;
+import com.shuaqiu.sqlighter.scan.Combiner;
+import com.shuaqiu.sqlighter.scan.ParallelScanner;
+import com.shuaqiu.sqlighter.scan.RangeScan;
+import com.shuaqiu.sqlighter.sync.Change;
+import com.shuaqiu.sqlighter.util.ColumnCompression;
+import com.shuaqiu.sqlighter.util.StringDictionary;
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
+import com.squareup.javapoet.WildcardTypeName;
 
 /**
  * SQLite ContentValue 生成
@@ -23,16 +43,48 @@ import com.squareup.javapoet.TypeName;
 @AutoService(Processor.class)
 public class SqliteUtilsProcessor extends SqliteProcessor {
 
-    private static final String SUFFIX = "Utils";
+    static final String SUFFIX = "Utils";
 
     private static final ClassName CONTENT_VALUES = ClassName.get("android.content", "ContentValues");
     private static final ClassName CURSOR = ClassName.get("android.database", "Cursor");
+    private static final ClassName SQLITE_DATABASE = ClassName.get("android.database.sqlite", "SQLiteDatabase");
+    private static final ClassName SQLITE_STATEMENT = ClassName.get("android.database.sqlite", "SQLiteStatement");
+
+    /** 每条语句中最多的绑定变量数, 即旧版本SQLite 的SQLITE_MAX_VARIABLE_NUMBER */
+    private static final int MAX_VARIABLE_NUMBER = 999;
+
+    /** 旧版本SQLite (3.8.8 之前) 中多行VALUES 受SQLITE_MAX_COMPOUND_SELECT 的限制 */
+    private static final int MAX_COMPOUND_SELECT = 500;
+
+    /** ackUpTo 每次删除的变更日志条数, 避免一次删除过多导致长时间的写锁 */
+    private static final int ACK_BATCH_SIZE = 1000;
 
     @Override
     protected String getSuffix() {
         return SUFFIX;
     }
 
+    /**
+     * 字段定义: {@link SqliteColumn#intern()} 的字段对应的字典
+     *
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @return 字段定义
+     * @throws ProcessingException 不是String 的字段声明了{@link SqliteColumn#intern()} 或{@link SqliteColumn#compress()}
+     */
+    @Override
+    protected FieldSpec[] buildFieldSpecs(final TypeElement classElement) throws ProcessingException {
+        final List<FieldSpec> fieldSpecs = new ArrayList<>();
+
+        for (final VariableElement field : SqliteSchemaUtils.getColumnFields(typeUtils, classElement)) {
+            checkStringOnly(field);
+            if (isIntern(field)) {
+                fieldSpecs.add(buildDictionaryFieldSpec(field));
+            }
+        }
+
+        return fieldSpecs.toArray(new FieldSpec[fieldSpecs.size()]);
+    }
+
     /**
      * ContentViews 的方法定义
      *
@@ -41,19 +93,45 @@ public class SqliteUtilsProcessor extends SqliteProcessor {
      */
     @Override
     protected MethodSpec[] buildMethodSpecs(final TypeElement classElement) {
-        final MethodSpec constructor = buildConstructor();
-        final MethodSpec getTableNameMethodSpec = buildGetTableNameMethodSpec(classElement);
-        final MethodSpec schemaMethodSpec = buildBuildMethodSpec(classElement);
-        final MethodSpec toContentValuesMethodSpec = buildToContentValuesMethodSpec(classElement);
-        final MethodSpec fromCursorMethodSpec = buildFromCursorMethodSpec(classElement);
+        final List<MethodSpec> methodSpecs = new ArrayList<>();
+        methodSpecs.add(buildConstructor());
+        methodSpecs.add(buildGetTableNameMethodSpec(classElement));
+        methodSpecs.add(buildBuildMethodSpec(classElement));
+        methodSpecs.add(buildToContentValuesMethodSpec(classElement));
+        methodSpecs.add(buildFromCursorMethodSpec(classElement));
+        methodSpecs.add(buildFromResultSetMethodSpec(classElement));
+        methodSpecs.add(buildRangeScanMethodSpec(classElement));
+        methodSpecs.add(buildGetQueriesMethodSpec(classElement));
+        methodSpecs.add(buildNotifyChangedMethodSpec(classElement));
+        methodSpecs.add(buildRunInTransactionMethodSpec());
+
+        // 有主键时, 才生成按主键批量操作的方法
+        final VariableElement idField = SqliteSchemaUtils.getIdField(typeUtils, classElement);
+        if (idField != null) {
+            methodSpecs.add(buildDeleteByIdsMethodSpec(classElement, idField));
+            methodSpecs.add(buildUpdateColumnByIdsMethodSpec(classElement, idField));
+            methodSpecs.add(buildExecuteByIdsMethodSpec(classElement));
+            methodSpecs.add(buildInClauseMethodSpec());
+        }
+
+        // 多行插入, 自增主键不插入, 由SQLite 生成
+        final List<VariableElement> insertFields = getInsertFields(classElement);
+        if (!insertFields.isEmpty()) {
+            methodSpecs.add(buildInsertAllMethodSpec(classElement, insertFields.size()));
+            methodSpecs.add(buildInsertSqlMethodSpec(classElement, insertFields));
+            methodSpecs.add(buildBindRowMethodSpec(classElement, insertFields));
+        }
 
-        return new MethodSpec[]{
-                constructor,
-                getTableNameMethodSpec,
-                schemaMethodSpec,
-                toContentValuesMethodSpec,
-                fromCursorMethodSpec
-        };
+        methodSpecs.add(buildBindValueMethodSpec());
+
+        // 记录变更日志时, 才生成增量同步的方法
+        if (classElement.getAnnotation(SqliteTable.class).trackChanges()) {
+            methodSpecs.add(buildChangeLogSchemaMethodSpec(classElement));
+            methodSpecs.add(buildChangesSinceMethodSpec(classElement, idField));
+            methodSpecs.add(buildAckUpToMethodSpec(classElement));
+        }
+
+        return methodSpecs.toArray(new MethodSpec[methodSpecs.size()]);
     }
 
     /**
@@ -147,6 +225,10 @@ public class SqliteUtilsProcessor extends SqliteProcessor {
 
         final String getFieldValueStatement = "data.get" + capitalizeFieldName + "()";
 
+        if (SqliteSchemaUtils.isCompress(typeUtils, field)) {
+            return ColumnCompression.class.getCanonicalName() + ".compress(" + getFieldValueStatement + ")";
+        }
+
         final String fieldTypeName = FieldUtils.getFieldTypeQualifiedName(typeUtils, field);
 
         switch (fieldTypeName) {
@@ -189,20 +271,75 @@ public class SqliteUtilsProcessor extends SqliteProcessor {
                 continue;
             }
 
-            // if (!cursor.isNull(columnIndex)) {
-            //     // 如果字段是null 值, 則不作處理
-            //     values.setXxx(cursor.getXxx(columnIndex));
-            // }
-            methodBuilder.beginControlFlow("if (!cursor.isNull($L))", columnIndex);
-            methodBuilder.addCode("// if column value is null, ignore this column\n");
-
             final String fieldName = field.getSimpleName().toString();
             final String capitalizeFieldName = StringUtils.capitalize(fieldName);
-            final String getCursorValueStatement = String.format(buildGetCursorValueStatement(field), columnIndex++);
+            final String getCursorValueStatement = String.format(buildGetCursorValueStatement(field), "cursor", columnIndex, "getBlob");
+
+            if (SqliteSchemaUtils.isNotNull(typeUtils, classElement, field)) {
+                // 字段一定不为null (基本类型, INTEGER 主键, not null 约束), 直接读取, 省掉一次isNull 调用
+                methodBuilder.addStatement("bean.set$L($L)", capitalizeFieldName, getCursorValueStatement);
+            } else {
+                // if (!cursor.isNull(columnIndex)) {
+                //     // 如果字段是null 值, 則不作處理
+                //     values.setXxx(cursor.getXxx(columnIndex));
+                // }
+                methodBuilder.beginControlFlow("if (!cursor.isNull($L))", columnIndex);
+                methodBuilder.addCode("// if column value is null, ignore this column\n");
+                methodBuilder.addStatement("bean.set$L($L)", capitalizeFieldName, getCursorValueStatement);
+                methodBuilder.endControlFlow();
+            }
+            columnIndex++;
+        }
 
-            methodBuilder.addStatement("bean.set$L($L)", capitalizeFieldName, getCursorValueStatement);
+        methodBuilder.addStatement("return bean");
 
-            methodBuilder.endControlFlow();
+        return methodBuilder.build();
+    }
+
+    /**
+     * fromResultSet 的方法定义, 与fromCursor 相同, 用于JDBC (如并行扫描)
+     *
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @return 方法定义
+     */
+    private MethodSpec buildFromResultSetMethodSpec(final TypeElement classElement) {
+        final MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("fromResultSet");
+        methodBuilder.addModifiers(Modifier.PUBLIC, Modifier.STATIC);
+        final TypeName typeName = TypeName.get(classElement.asType());
+        methodBuilder.returns(typeName);
+
+        methodBuilder.addParameter(ResultSet.class, "resultSet", Modifier.FINAL);
+        methodBuilder.addException(SQLException.class);
+
+        methodBuilder.addStatement("final $T bean = new $T()", typeName, typeName);
+
+        final List<VariableElement> fields = FieldUtils.getFields(typeUtils, classElement);
+
+        // JDBC 的字段下标从1 开始
+        int columnIndex = 1;
+        for (final VariableElement field : fields) {
+            final SqliteColumn sqliteColumn = field.getAnnotation(SqliteColumn.class);
+            if (sqliteColumn != null && sqliteColumn.ignore()) {
+                continue;
+            }
+
+            final String fieldName = field.getSimpleName().toString();
+            final String capitalizeFieldName = StringUtils.capitalize(fieldName);
+            final String getResultSetValueStatement = String.format(buildGetCursorValueStatement(field), "resultSet", columnIndex, "getBytes");
+
+            if (SqliteSchemaUtils.isNotNull(typeUtils, classElement, field)) {
+                methodBuilder.addStatement("bean.set$L($L)", capitalizeFieldName, getResultSetValueStatement);
+            } else {
+                // 先按类型读取, 再通过wasNull 判断, 避免getObject 的装箱以及重复读取
+                final String valueName = fieldName + "Value";
+                methodBuilder.addStatement("final $T $L = $L", TypeName.get(field.asType()), valueName,
+                        getResultSetValueStatement);
+                methodBuilder.beginControlFlow("if (!resultSet.wasNull())");
+                methodBuilder.addCode("// if column value is null, ignore this column\n");
+                methodBuilder.addStatement("bean.set$L($L)", capitalizeFieldName, valueName);
+                methodBuilder.endControlFlow();
+            }
+            columnIndex++;
         }
 
         methodBuilder.addStatement("return bean");
@@ -211,41 +348,850 @@ public class SqliteUtilsProcessor extends SqliteProcessor {
     }
 
     /**
-     * 构建获取字段值的语句: cursor.getXxx(). 主要是根据不同的数据类型, 需要调用Cursor 的不同方法
+     * rangeScan 的方法定义: 基于SQLiteDatabase 的{@link RangeScan} 实现, 用于在Android 上并行扫描
+     * <p>
+     * SQLiteDatabase 只有在开启WAL 之后, 不同线程上的查询才会使用不同的连接, 否则各分区仍然是串行执行的.
+     * 每个分区都是一个独立的读事务, 扫描结果不是整表的一致性快照
+     *
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @return 方法定义
+     */
+    private MethodSpec buildRangeScanMethodSpec(final TypeElement classElement) {
+        final MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("rangeScan");
+        methodBuilder.addModifiers(Modifier.PUBLIC, Modifier.STATIC);
+        final TypeName typeName = TypeName.get(classElement.asType());
+        final TypeName rangeScanTypeName = ParameterizedTypeName.get(ClassName.get(RangeScan.class), typeName);
+        methodBuilder.returns(rangeScanTypeName);
+
+        methodBuilder.addParameter(SQLITE_DATABASE, "db", Modifier.FINAL);
+
+        methodBuilder.addJavadoc("Scan rows by rowid range for {@link $T}, each partition is a separate read transaction,\n"
+                + "so the result is not a consistent snapshot. Partitions only run concurrently with WAL enabled.\n", ParallelScanner.class);
+
+        final String tableName = SqliteSchemaUtils.getTableName(classElement);
+
+        final MethodSpec.Builder rangeBuilder = MethodSpec.methodBuilder("range");
+        rangeBuilder.addAnnotation(Override.class);
+        rangeBuilder.addModifiers(Modifier.PUBLIC);
+        rangeBuilder.returns(long[].class);
+        rangeBuilder.addStatement("final $T cursor = db.rawQuery($S, null)", CURSOR,
+                "select min(rowid), max(rowid) from " + tableName);
+        rangeBuilder.beginControlFlow("try");
+        rangeBuilder.beginControlFlow("if (!cursor.moveToFirst() || cursor.isNull(0))");
+        rangeBuilder.addCode("// empty table\n");
+        rangeBuilder.addStatement("return null");
+        rangeBuilder.endControlFlow();
+        rangeBuilder.addStatement("return new long[]{cursor.getLong(0), cursor.getLong(1)}");
+        rangeBuilder.nextControlFlow("finally");
+        rangeBuilder.addStatement("cursor.close()");
+        rangeBuilder.endControlFlow();
+
+        // select * 的字段顺序与schema() 生成的一致, 可以直接交给fromCursor, 语句与getQueries() 中的一致
+        final TypeVariableName r = TypeVariableName.get("R");
+        final MethodSpec.Builder scanBuilder = MethodSpec.methodBuilder("scan");
+        scanBuilder.addAnnotation(Override.class);
+        scanBuilder.addModifiers(Modifier.PUBLIC);
+        scanBuilder.addTypeVariable(r);
+        scanBuilder.returns(r);
+        scanBuilder.addParameter(long.class, "from", Modifier.FINAL);
+        scanBuilder.addParameter(long.class, "to", Modifier.FINAL);
+        scanBuilder.addParameter(ParameterizedTypeName.get(ClassName.get(Combiner.class), typeName, r),
+                "combiner", Modifier.FINAL);
+        scanBuilder.addStatement("final $T cursor = db.rawQuery($S, new String[]{String.valueOf(from), String.valueOf(to)})",
+                CURSOR, "select * from " + tableName + " where rowid >= ? and rowid <= ?");
+        scanBuilder.beginControlFlow("try");
+        scanBuilder.addStatement("$T result = combiner.create()", r);
+        scanBuilder.beginControlFlow("while (cursor.moveToNext())");
+        scanBuilder.addStatement("result = combiner.accumulate(result, fromCursor(cursor))");
+        scanBuilder.endControlFlow();
+        scanBuilder.addStatement("return result");
+        scanBuilder.nextControlFlow("finally");
+        scanBuilder.addStatement("cursor.close()");
+        scanBuilder.endControlFlow();
+
+        final TypeSpec rangeScan = TypeSpec.anonymousClassBuilder("")
+                .addSuperinterface(rangeScanTypeName)
+                .addMethod(rangeBuilder.build())
+                .addMethod(scanBuilder.build())
+                .build();
+        methodBuilder.addStatement("return $L", rangeScan);
+
+        return methodBuilder.build();
+    }
+
+    /**
+     * 构建获取字段值的语句: cursor.getXxx(). 主要是根据不同的数据类型, 需要调用Cursor 的不同方法.
+     * Cursor 和ResultSet 的方法名基本相同, 返回的格式中 %1$s 为变量名, %2$d 为字段下标,
+     * %3$s 为读取BLOB 的方法名(Cursor 为getBlob, ResultSet 为getBytes)
      *
      * @param field 字段元素
-     * @return 获取字段值的语句
+     * @return 获取字段值的语句的格式
      */
     private String buildGetCursorValueStatement(final VariableElement field) {
+        if (SqliteSchemaUtils.isCompress(typeUtils, field)) {
+            return ColumnCompression.class.getCanonicalName() + ".decompress(%1$s.%3$s(%2$d))";
+        }
+
         final String fieldTypeName = FieldUtils.getFieldTypeQualifiedName(typeUtils, field);
         switch (fieldTypeName) {
             case "int":
             case "java.lang.Integer":
-                return "cursor.getInt(%d)";
+                return "%1$s.getInt(%2$d)";
 
             case "java.lang.String":
-                return "cursor.getString(%d)";
+                if (isIntern(field)) {
+                    // 通过字典共用相同的字符串实例
+                    return getDictionaryName(field) + ".intern(%1$s.getString(%2$d))";
+                }
+                return "%1$s.getString(%2$d)";
 
             case "long":
             case "java.lang.Long":
-                return "cursor.getLong(%d)";
+                return "%1$s.getLong(%2$d)";
 
             case "double":
             case "java.lang.Double":
-                return "cursor.getDouble(%d)";
+                return "%1$s.getDouble(%2$d)";
 
             case "float":
             case "java.lang.Float":
-                return "cursor.getFloat(%d)";
+                return "%1$s.getFloat(%2$d)";
 
             case "boolean":
             case "java.lang.Boolean":
-                return "cursor.getInt(%d) == 1";
+                return "%1$s.getInt(%2$d) == 1";
 
             case "java.util.Date":
-                return "new java.util.Date(cursor.getLong(%d))";
+                return "new java.util.Date(%1$s.getLong(%2$d))";
+        }
+
+        return "%1$s.getString(%2$d)";
+    }
+
+    /**
+     * getQueries 的方法定义: 返回生成的代码会执行的查询语句, 用于检查查询计划
+     *
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @return 方法定义
+     */
+    private MethodSpec buildGetQueriesMethodSpec(final TypeElement classElement) {
+        final MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("getQueries");
+        methodBuilder.addModifiers(Modifier.PUBLIC, Modifier.STATIC);
+        methodBuilder.returns(String[].class);
+
+        final String tableName = SqliteSchemaUtils.getTableName(classElement);
+        final List<String> queries = new ArrayList<>();
+
+        // 按rowid 范围扫描, 与JdbcRangeScan 一致
+        queries.add("select * from " + tableName + " where rowid >= ? and rowid <= ?");
+
+        final VariableElement idField = SqliteSchemaUtils.getIdField(typeUtils, classElement);
+        if (idField != null) {
+            final String idName = idField.getSimpleName().toString();
+            queries.add("delete from " + tableName + " where " + idName + " in (?)");
+            queries.add("update " + tableName + " set " + idName + " = ? where " + idName + " in (?)");
+        }
+
+        if (classElement.getAnnotation(SqliteTable.class).trackChanges()) {
+            queries.add(buildChangesSinceSql(classElement) + "100");
+            queries.add(buildAckUpToSql(classElement));
+        }
+
+        final StringBuilder statement = new StringBuilder("return new String[]{");
+        for (int i = 0; i < queries.size(); i++) {
+            statement.append(i == 0 ? "$S" : ", $S");
+        }
+        statement.append("}");
+        methodBuilder.addStatement(statement.toString(), queries.toArray());
+
+        return methodBuilder.build();
+    }
+
+    /**
+     * notifyChanged 的方法定义: 通过其他方式(如db.insert) 修改了表之后, 通知订阅者
+     *
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @return 方法定义
+     */
+    private MethodSpec buildNotifyChangedMethodSpec(final TypeElement classElement) {
+        final MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("notifyChanged");
+        methodBuilder.addModifiers(Modifier.PUBLIC, Modifier.STATIC);
+
+        methodBuilder.addStatement("final $T bus = $T.getDefault()", InvalidationBus.class, InvalidationBus.class);
+        addPublishStatements(methodBuilder, classElement);
+
+        return methodBuilder.build();
+    }
+
+    /**
+     * 发布表的变更: 记录变更日志的表, 触发器同时写入了变更日志表, 也一起发布
+     *
+     * @param methodBuilder 方法定义, 需要已经定义了bus 变量
+     * @param classElement  当前的{@link SqliteTable } 标记的Element
+     */
+    private void addPublishStatements(final MethodSpec.Builder methodBuilder, final TypeElement classElement) {
+        methodBuilder.addStatement("bus.publish($S)", SqliteSchemaUtils.getTableName(classElement));
+        if (classElement.getAnnotation(SqliteTable.class).trackChanges()) {
+            methodBuilder.addStatement("bus.publish($S)", SqliteSchemaUtils.getChangeLogTableName(classElement));
+        }
+    }
+
+    /**
+     * runInTransaction 的方法定义: 同时开启数据库和{@link InvalidationBus} 的事务, 在其中执行调用方的操作.
+     * 只有数据库事务真正提交(endTransaction 正常返回) 之后才通知, 回滚或者提交失败都不通知.
+     * 可以嵌套, 其中调用的insertAll 等写方法会加入这个事务, 在最外层提交后一起通知
+     *
+     * @return 方法定义
+     */
+    private MethodSpec buildRunInTransactionMethodSpec() {
+        final TypeVariableName r = TypeVariableName.get("R");
+        final MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("runInTransaction");
+        methodBuilder.addModifiers(Modifier.PUBLIC, Modifier.STATIC);
+        methodBuilder.addTypeVariable(r);
+        methodBuilder.returns(r);
+        methodBuilder.addException(Exception.class);
+
+        methodBuilder.addParameter(SQLITE_DATABASE, "db", Modifier.FINAL);
+        methodBuilder.addParameter(ParameterizedTypeName.get(ClassName.get(Callable.class), r), "body", Modifier.FINAL);
+
+        methodBuilder.addJavadoc("Runs body in a database transaction together with an {@link $T} transaction.\n"
+                + "Tables written inside are notified only after the database transaction really commits.\n"
+                + "Writes inside a transaction opened directly by db.beginTransaction() are notified before the commit.\n",
+                InvalidationBus.class);
+
+        methodBuilder.addStatement("final $T bus = $T.getDefault()", InvalidationBus.class, InvalidationBus.class);
+        methodBuilder.addStatement("bus.beginTransaction()");
+        methodBuilder.addStatement("boolean committed = false");
+        methodBuilder.beginControlFlow("try");
+        methodBuilder.addStatement("db.beginTransaction()");
+        methodBuilder.addStatement("final $T result", r);
+        methodBuilder.beginControlFlow("try");
+        methodBuilder.addStatement("result = body.call()");
+        methodBuilder.addStatement("db.setTransactionSuccessful()");
+        methodBuilder.nextControlFlow("finally");
+        methodBuilder.addStatement("db.endTransaction()");
+        methodBuilder.endControlFlow();
+        methodBuilder.addCode("// endTransaction returned normally, the transaction is committed\n");
+        methodBuilder.addStatement("committed = true");
+        methodBuilder.addStatement("return result");
+        methodBuilder.nextControlFlow("finally");
+        methodBuilder.addStatement("bus.endTransaction(committed)");
+        methodBuilder.endControlFlow();
+
+        return methodBuilder.build();
+    }
+
+    /**
+     * 写方法的事务开始部分, 与{@link #endWriteTransaction(MethodSpec.Builder)} 成对使用, 之间为写操作及发布的语句.
+     * 已经在调用方的事务中时, 只加入调用方的通知事务(由runInTransaction 在提交后通知);
+     * 否则与runInTransaction 一样, 同时开启数据库和通知的事务. 需要已经定义了fullStatement, lastStatement 变量
+     *
+     * @param methodBuilder 方法定义
+     */
+    private void beginWriteTransaction(final MethodSpec.Builder methodBuilder) {
+        methodBuilder.addStatement("final $T bus = $T.getDefault()", InvalidationBus.class, InvalidationBus.class);
+        methodBuilder.addCode("// inside the caller's transaction, join it and let the caller notify after the commit\n");
+        methodBuilder.addStatement("final boolean joined = db.inTransaction()");
+        methodBuilder.beginControlFlow("if (!joined)");
+        methodBuilder.addStatement("bus.beginTransaction()");
+        methodBuilder.endControlFlow();
+        methodBuilder.addStatement("boolean committed = false");
+        methodBuilder.beginControlFlow("try");
+        methodBuilder.addStatement("db.beginTransaction()");
+        methodBuilder.beginControlFlow("try");
+    }
+
+    /**
+     * 写方法的事务结束部分: 关闭语句, 结束数据库事务, endTransaction 正常返回才算提交成功
+     *
+     * @param methodBuilder 方法定义
+     */
+    private void endWriteTransaction(final MethodSpec.Builder methodBuilder) {
+        methodBuilder.addStatement("db.setTransactionSuccessful()");
+        methodBuilder.nextControlFlow("finally");
+        methodBuilder.beginControlFlow("if (fullStatement != null)");
+        methodBuilder.addStatement("fullStatement.close()");
+        methodBuilder.endControlFlow();
+        methodBuilder.beginControlFlow("if (lastStatement != null)");
+        methodBuilder.addStatement("lastStatement.close()");
+        methodBuilder.endControlFlow();
+        methodBuilder.addStatement("db.endTransaction()");
+        methodBuilder.endControlFlow();
+        methodBuilder.addStatement("committed = true");
+        methodBuilder.nextControlFlow("finally");
+        methodBuilder.beginControlFlow("if (!joined)");
+        methodBuilder.addStatement("bus.endTransaction(committed)");
+        methodBuilder.endControlFlow();
+        methodBuilder.endControlFlow();
+    }
+
+    /**
+     * deleteByIds 的方法定义
+     *
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @param idField      主键字段
+     * @return 方法定义
+     */
+    private MethodSpec buildDeleteByIdsMethodSpec(final TypeElement classElement, final VariableElement idField) {
+        final MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("deleteByIds");
+        methodBuilder.addModifiers(Modifier.PUBLIC, Modifier.STATIC);
+        methodBuilder.returns(int.class);
+
+        methodBuilder.addParameter(SQLITE_DATABASE, "db", Modifier.FINAL);
+        methodBuilder.addParameter(buildIdsTypeName(idField), "ids", Modifier.FINAL);
+
+        final String tableName = SqliteSchemaUtils.getTableName(classElement);
+        final String sqlPrefix = "delete from " + tableName + " where " + idField.getSimpleName() + " in (";
+        methodBuilder.addStatement("return executeByIds(db, $S, new Object[0], ids)", sqlPrefix);
+
+        return methodBuilder.build();
+    }
+
+    /**
+     * updateColumnByIds 的方法定义. {@link SqliteColumn#compress()} 的字段要与insertAll 一样先压缩再绑定,
+     * 不能直接写入TEXT: Android 上读取TEXT 的getBlob 可能带有结尾的0x00, 以0x01 开头的文本也会被当作DEFLATE 的头部
+     *
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @param idField      主键字段
+     * @return 方法定义
+     */
+    private MethodSpec buildUpdateColumnByIdsMethodSpec(final TypeElement classElement, final VariableElement idField) {
+        final MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("updateColumnByIds");
+        methodBuilder.addModifiers(Modifier.PUBLIC, Modifier.STATIC);
+        methodBuilder.returns(int.class);
+
+        methodBuilder.addParameter(SQLITE_DATABASE, "db", Modifier.FINAL);
+        methodBuilder.addParameter(String.class, "column", Modifier.FINAL);
+        methodBuilder.addParameter(Object.class, "value", Modifier.FINAL);
+        methodBuilder.addParameter(buildIdsTypeName(idField), "ids", Modifier.FINAL);
+
+        final List<String> plainColumns = new ArrayList<>();
+        final List<String> compressColumns = new ArrayList<>();
+        for (final VariableElement field : SqliteSchemaUtils.getColumnFields(typeUtils, classElement)) {
+            if (SqliteSchemaUtils.isCompress(typeUtils, field)) {
+                compressColumns.add(field.getSimpleName().toString());
+            } else {
+                plainColumns.add(field.getSimpleName().toString());
+            }
+        }
+
+        // 字段名会拼接到SQL 中, 只允许表中已有的字段
+        if (compressColumns.isEmpty()) {
+            methodBuilder.beginControlFlow("switch (column)");
+            for (final String column : plainColumns) {
+                methodBuilder.addCode("case $S:\n", column);
+            }
+            methodBuilder.addStatement("$>break$<");
+        } else {
+            methodBuilder.addStatement("final Object bound");
+            methodBuilder.beginControlFlow("switch (column)");
+            if (!plainColumns.isEmpty()) {
+                for (final String column : plainColumns) {
+                    methodBuilder.addCode("case $S:\n", column);
+                }
+                methodBuilder.addCode("$>");
+                methodBuilder.addStatement("bound = value");
+                methodBuilder.addStatement("break$<");
+            }
+            for (final String column : compressColumns) {
+                methodBuilder.addCode("case $S:\n", column);
+            }
+            methodBuilder.addCode("$>");
+            methodBuilder.addCode("// stored with the ColumnCompression header, like insertAll\n");
+            methodBuilder.beginControlFlow("if (value != null && !(value instanceof String))");
+            methodBuilder.addStatement("throw new $T($S + column)", IllegalArgumentException.class,
+                    "a String value is required for the compressed column: ");
+            methodBuilder.endControlFlow();
+            methodBuilder.addStatement("bound = $T.compress((String) value)", ColumnCompression.class);
+            methodBuilder.addStatement("break$<");
+        }
+        methodBuilder.addCode("default:\n");
+        methodBuilder.addStatement("$>throw new $T($S + column)$<", IllegalArgumentException.class, "unknown column: ");
+        methodBuilder.endControlFlow();
+
+        final String tableName = SqliteSchemaUtils.getTableName(classElement);
+        methodBuilder.addStatement("final String sqlPrefix = $S + column + $S", "update " + tableName + " set ",
+                " = ? where " + idField.getSimpleName() + " in (");
+        methodBuilder.addStatement("return executeByIds(db, sqlPrefix, new Object[]{$L}, ids)",
+                compressColumns.isEmpty() ? "value" : "bound");
+
+        return methodBuilder.build();
+    }
+
+    /**
+     * 主键集合的类型: Collection&lt;主键的包装类型&gt;
+     *
+     * @param idField 主键字段
+     * @return 主键集合的类型
+     */
+    private TypeName buildIdsTypeName(final VariableElement idField) {
+        final TypeName idTypeName = TypeName.get(idField.asType()).box();
+        return ParameterizedTypeName.get(ClassName.get(Collection.class), idTypeName);
+    }
+
+    /**
+     * executeByIds 的方法定义: 将主键按块拆分, 每块执行一次 "... in (?, ?, ...)" 语句, 所有块在同一个事务中.
+     * 满块共用一个编译好的语句, 最后不满的一块再编译一个. 有修改时, 在事务提交后通过{@link InvalidationBus} 通知
+     *
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @return 方法定义
+     */
+    private MethodSpec buildExecuteByIdsMethodSpec(final TypeElement classElement) {
+        final MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("executeByIds");
+        methodBuilder.addModifiers(Modifier.PRIVATE, Modifier.STATIC);
+        methodBuilder.returns(int.class);
+
+        methodBuilder.addParameter(SQLITE_DATABASE, "db", Modifier.FINAL);
+        methodBuilder.addParameter(String.class, "sqlPrefix", Modifier.FINAL);
+        methodBuilder.addParameter(Object[].class, "args", Modifier.FINAL);
+        methodBuilder.addParameter(ParameterizedTypeName.get(ClassName.get(Collection.class),
+                WildcardTypeName.subtypeOf(Object.class)), "ids", Modifier.FINAL);
+
+        methodBuilder.beginControlFlow("if (ids.isEmpty())");
+        methodBuilder.addStatement("return 0");
+        methodBuilder.endControlFlow();
+
+        methodBuilder.addStatement("final int chunkSize = $L - args.length", MAX_VARIABLE_NUMBER);
+        methodBuilder.addStatement("int count = 0");
+        methodBuilder.addStatement("$T fullStatement = null", SQLITE_STATEMENT);
+        methodBuilder.addStatement("$T lastStatement = null", SQLITE_STATEMENT);
+
+        beginWriteTransaction(methodBuilder);
+        methodBuilder.addStatement("final $T<?> iterator = ids.iterator()", Iterator.class);
+        methodBuilder.addStatement("int remaining = ids.size()");
+        methodBuilder.beginControlFlow("while (remaining > 0)");
+        methodBuilder.addStatement("final int size = Math.min(remaining, chunkSize)");
+        methodBuilder.addStatement("final $T statement", SQLITE_STATEMENT);
+        methodBuilder.beginControlFlow("if (size == chunkSize)");
+        methodBuilder.beginControlFlow("if (fullStatement == null)");
+        methodBuilder.addStatement("fullStatement = db.compileStatement(buildInClause(sqlPrefix, size))");
+        methodBuilder.endControlFlow();
+        methodBuilder.addStatement("statement = fullStatement");
+        methodBuilder.nextControlFlow("else");
+        methodBuilder.addStatement("lastStatement = db.compileStatement(buildInClause(sqlPrefix, size))");
+        methodBuilder.addStatement("statement = lastStatement");
+        methodBuilder.endControlFlow();
+
+        methodBuilder.addStatement("statement.clearBindings()");
+        methodBuilder.addStatement("int index = 1");
+        methodBuilder.beginControlFlow("for (final Object arg : args)");
+        methodBuilder.addStatement("bindValue(statement, index++, arg)");
+        methodBuilder.endControlFlow();
+        methodBuilder.beginControlFlow("for (int i = 0; i < size; i++)");
+        methodBuilder.addStatement("bindValue(statement, index++, iterator.next())");
+        methodBuilder.endControlFlow();
+        methodBuilder.addStatement("count += statement.executeUpdateDelete()");
+        methodBuilder.addStatement("remaining -= size");
+        methodBuilder.endControlFlow();
+        methodBuilder.beginControlFlow("if (count > 0)");
+        addPublishStatements(methodBuilder, classElement);
+        methodBuilder.endControlFlow();
+        endWriteTransaction(methodBuilder);
+
+        methodBuilder.addStatement("return count");
+
+        return methodBuilder.build();
+    }
+
+    /**
+     * buildInClause 的方法定义: sqlPrefix + "?, ?, ...)"
+     *
+     * @return 方法定义
+     */
+    private MethodSpec buildInClauseMethodSpec() {
+        final MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("buildInClause");
+        methodBuilder.addModifiers(Modifier.PRIVATE, Modifier.STATIC);
+        methodBuilder.returns(String.class);
+
+        methodBuilder.addParameter(String.class, "sqlPrefix", Modifier.FINAL);
+        methodBuilder.addParameter(int.class, "size", Modifier.FINAL);
+
+        methodBuilder.addStatement("final $T sql = new $T(sqlPrefix.length() + size * 3)", StringBuilder.class, StringBuilder.class);
+        methodBuilder.addStatement("sql.append(sqlPrefix)");
+        methodBuilder.beginControlFlow("for (int i = 0; i < size; i++)");
+        methodBuilder.addStatement("sql.append(i == 0 ? $S : $S)", "?", ", ?");
+        methodBuilder.endControlFlow();
+        methodBuilder.addStatement("sql.append(')')");
+        methodBuilder.addStatement("return sql.toString()");
+
+        return methodBuilder.build();
+    }
+
+    /**
+     * bindValue 的方法定义: 根据值的类型调用SQLiteStatement 不同的bind 方法, 与toContentValues 的转换保持一致
+     *
+     * @return 方法定义
+     */
+    private MethodSpec buildBindValueMethodSpec() {
+        final MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("bindValue");
+        methodBuilder.addModifiers(Modifier.PRIVATE, Modifier.STATIC);
+
+        methodBuilder.addParameter(SQLITE_STATEMENT, "statement", Modifier.FINAL);
+        methodBuilder.addParameter(int.class, "index", Modifier.FINAL);
+        methodBuilder.addParameter(Object.class, "value", Modifier.FINAL);
+
+        methodBuilder.beginControlFlow("if (value == null)");
+        methodBuilder.addStatement("statement.bindNull(index)");
+        methodBuilder.nextControlFlow("else if (value instanceof $T || value instanceof $T)", Double.class, Float.class);
+        methodBuilder.addStatement("statement.bindDouble(index, (($T) value).doubleValue())", Number.class);
+        methodBuilder.nextControlFlow("else if (value instanceof $T)", Number.class);
+        methodBuilder.addStatement("statement.bindLong(index, (($T) value).longValue())", Number.class);
+        methodBuilder.nextControlFlow("else if (value instanceof $T)", Boolean.class);
+        methodBuilder.addStatement("statement.bindLong(index, (($T) value) ? 1 : 0)", Boolean.class);
+        methodBuilder.nextControlFlow("else if (value instanceof $T)", Date.class);
+        methodBuilder.addStatement("statement.bindLong(index, (($T) value).getTime())", Date.class);
+        methodBuilder.nextControlFlow("else if (value instanceof byte[])");
+        methodBuilder.addStatement("statement.bindBlob(index, (byte[]) value)");
+        methodBuilder.nextControlFlow("else");
+        methodBuilder.addStatement("statement.bindString(index, value.toString())");
+        methodBuilder.endControlFlow();
+
+        return methodBuilder.build();
+    }
+
+    /**
+     * 检查只能用于String 字段的{@link SqliteColumn} 属性, 避免声明了却被忽略
+     *
+     * @param field 字段元素
+     * @throws ProcessingException 不是String 的字段声明了{@link SqliteColumn#intern()} 或{@link SqliteColumn#compress()},
+     *                             或者同时声明了两者
+     */
+    private void checkStringOnly(final VariableElement field) throws ProcessingException {
+        final SqliteColumn sqliteColumn = field.getAnnotation(SqliteColumn.class);
+        if (sqliteColumn == null) {
+            return;
+        }
+
+        // 压缩的字段读取时先解压, 不会再经过字典, intern 会被忽略
+        if (sqliteColumn.intern() && sqliteColumn.compress()) {
+            final String msg = "The field %s can not be both intern and compress";
+            throw new ProcessingException(field, msg, field.getSimpleName());
+        }
+
+        final String fieldTypeName = FieldUtils.getFieldTypeQualifiedName(typeUtils, field);
+        if (fieldTypeName.equals("java.lang.String")) {
+            return;
+        }
+
+        if (sqliteColumn.intern()) {
+            final String msg = "The field %s is %s, only String field can be intern";
+            throw new ProcessingException(field, msg, field.getSimpleName(), fieldTypeName);
+        }
+        if (sqliteColumn.compress()) {
+            final String msg = "The field %s is %s, only String field can be compress";
+            throw new ProcessingException(field, msg, field.getSimpleName(), fieldTypeName);
+        }
+    }
+
+    /**
+     * 字段是否需要通过字典共用相同的字符串实例: String 类型, 并且声明了{@link SqliteColumn#intern()}
+     *
+     * @param field 字段元素
+     * @return 是否需要通过字典共用相同的字符串实例
+     */
+    private boolean isIntern(final VariableElement field) {
+        final SqliteColumn sqliteColumn = field.getAnnotation(SqliteColumn.class);
+        if (sqliteColumn == null || !sqliteColumn.intern()) {
+            return false;
         }
+        return FieldUtils.getFieldTypeQualifiedName(typeUtils, field).equals("java.lang.String");
+    }
+
+    /**
+     * 获取字段对应的字典的常量名: countryCode -&gt; COUNTRY_CODE_DICTIONARY
+     *
+     * @param field 字段元素
+     * @return 字典的常量名
+     */
+    private String getDictionaryName(final VariableElement field) {
+        return StringUtils.toConstantName(field.getSimpleName().toString()) + "_DICTIONARY";
+    }
+
+    /**
+     * 字典的字段定义
+     *
+     * @param field 字段元素
+     * @return 字段定义
+     */
+    private FieldSpec buildDictionaryFieldSpec(final VariableElement field) {
+        final FieldSpec.Builder fieldBuilder = FieldSpec.builder(StringDictionary.class, getDictionaryName(field));
+        fieldBuilder.addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL);
+        fieldBuilder.initializer("new $T()", StringDictionary.class);
+        return fieldBuilder.build();
+    }
+
+    /**
+     * changeLogSchema 的方法定义: 变更日志表以及触发器的DDL
+     *
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @return 方法定义
+     */
+    private MethodSpec buildChangeLogSchemaMethodSpec(final TypeElement classElement) {
+        final MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("changeLogSchema");
+        methodBuilder.addModifiers(Modifier.PUBLIC, Modifier.STATIC);
+        methodBuilder.returns(String[].class);
+
+        final List<String> ddls = SqliteSchemaUtils.generalChangeLogSchema(typeUtils, classElement);
+
+        methodBuilder.addCode("return new String[]{\n$>");
+        for (int i = 0; i < ddls.size(); i++) {
+            methodBuilder.addCode(i < ddls.size() - 1 ? "$S,\n" : "$S\n", ddls.get(i));
+        }
+        methodBuilder.addCode("$<};\n");
+
+        return methodBuilder.build();
+    }
+
+    /**
+     * changesSince 的方法定义: 按序号顺序获取序号大于seq 的变更, 最多limit 条
+     *
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @param idField      主键字段, 为null 时使用rowid
+     * @return 方法定义
+     */
+    private MethodSpec buildChangesSinceMethodSpec(final TypeElement classElement, final VariableElement idField) {
+        final MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("changesSince");
+        methodBuilder.addModifiers(Modifier.PUBLIC, Modifier.STATIC);
 
-        return "cursor.getString(%d)";
+        final TypeName idTypeName = idField == null ? TypeName.get(Long.class) : TypeName.get(idField.asType()).box();
+        final TypeName changeTypeName = ParameterizedTypeName.get(ClassName.get(Change.class), idTypeName);
+        methodBuilder.returns(ParameterizedTypeName.get(ClassName.get(List.class), changeTypeName));
+
+        methodBuilder.addParameter(SQLITE_DATABASE, "db", Modifier.FINAL);
+        methodBuilder.addParameter(long.class, "seq", Modifier.FINAL);
+        methodBuilder.addParameter(int.class, "limit", Modifier.FINAL);
+
+        final String getIdStatement = idField == null
+                ? "cursor.getLong(1)"
+                : String.format(buildGetCursorValueStatement(idField), "cursor", 1, "getBlob");
+
+        methodBuilder.addStatement("final $T<$T> changes = new $T<>()", List.class, changeTypeName, ArrayList.class);
+        methodBuilder.addStatement("final $T cursor = db.rawQuery($S + limit, new String[]{String.valueOf(seq)})",
+                CURSOR, buildChangesSinceSql(classElement));
+        methodBuilder.beginControlFlow("try");
+        methodBuilder.beginControlFlow("while (cursor.moveToNext())");
+        methodBuilder.addStatement("final $T id = cursor.isNull(1) ? null : $L", idTypeName, getIdStatement);
+        methodBuilder.addStatement("changes.add(new $T(cursor.getLong(0), id, cursor.getInt(2)))", changeTypeName);
+        methodBuilder.endControlFlow();
+        methodBuilder.nextControlFlow("finally");
+        methodBuilder.addStatement("cursor.close()");
+        methodBuilder.endControlFlow();
+        methodBuilder.addStatement("return changes");
+
+        return methodBuilder.build();
+    }
+
+    /**
+     * ackUpTo 的方法定义: 分批删除序号小于等于seq 的变更日志, 每批单独提交
+     *
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @return 方法定义
+     */
+    private MethodSpec buildAckUpToMethodSpec(final TypeElement classElement) {
+        final MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("ackUpTo");
+        methodBuilder.addModifiers(Modifier.PUBLIC, Modifier.STATIC);
+        methodBuilder.returns(int.class);
+
+        methodBuilder.addParameter(SQLITE_DATABASE, "db", Modifier.FINAL);
+        methodBuilder.addParameter(long.class, "seq", Modifier.FINAL);
+
+        methodBuilder.addStatement("final $T statement = db.compileStatement($S)", SQLITE_STATEMENT, buildAckUpToSql(classElement));
+        methodBuilder.beginControlFlow("try");
+        methodBuilder.addStatement("statement.bindLong(1, seq)");
+        methodBuilder.addStatement("int count = 0");
+        methodBuilder.addStatement("int deleted");
+        methodBuilder.beginControlFlow("do");
+        methodBuilder.addStatement("deleted = statement.executeUpdateDelete()");
+        methodBuilder.addStatement("count += deleted");
+        methodBuilder.endControlFlow("while (deleted > 0)");
+        methodBuilder.beginControlFlow("if (count > 0)");
+        methodBuilder.addStatement("$T.getDefault().publish($S)", InvalidationBus.class,
+                SqliteSchemaUtils.getChangeLogTableName(classElement));
+        methodBuilder.endControlFlow();
+        methodBuilder.addStatement("return count");
+        methodBuilder.nextControlFlow("finally");
+        methodBuilder.addStatement("statement.close()");
+        methodBuilder.endControlFlow();
+
+        return methodBuilder.build();
+    }
+
+    /**
+     * changesSince 的查询语句, 末尾需要拼接limit 的值
+     *
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @return 查询语句
+     */
+    private String buildChangesSinceSql(final TypeElement classElement) {
+        final String changeLogTable = SqliteSchemaUtils.getChangeLogTableName(classElement);
+        return "select seq, id, op from " + changeLogTable + " where seq > ? order by seq limit ";
+    }
+
+    /**
+     * ackUpTo 的删除语句, 每次最多删除{@link #ACK_BATCH_SIZE} 条
+     *
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @return 删除语句
+     */
+    private String buildAckUpToSql(final TypeElement classElement) {
+        final String changeLogTable = SqliteSchemaUtils.getChangeLogTableName(classElement);
+        return "delete from " + changeLogTable + " where seq in (select seq from " + changeLogTable
+                + " where seq <= ? order by seq limit " + ACK_BATCH_SIZE + ")";
+    }
+
+    /**
+     * 获取多行插入的字段: 排除自增主键
+     *
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @return 多行插入的字段
+     */
+    private List<VariableElement> getInsertFields(final TypeElement classElement) {
+        final VariableElement idField = SqliteSchemaUtils.getIdField(typeUtils, classElement);
+        final boolean autoIncrement = idField != null && idField.getAnnotation(SqliteId.class).autoIncrement();
+
+        final List<VariableElement> insertFields = new ArrayList<>();
+        for (final VariableElement field : SqliteSchemaUtils.getColumnFields(typeUtils, classElement)) {
+            if (autoIncrement && field == idField) {
+                continue;
+            }
+            insertFields.add(field);
+        }
+        return insertFields;
+    }
+
+    /**
+     * 计算每条多行INSERT 语句的行数: 绑定变量数不超过{@link #MAX_VARIABLE_NUMBER}, 行数不超过{@link #MAX_COMPOUND_SELECT}
+     *
+     * @param columnCount 每行的字段数
+     * @return 每条语句的行数
+     */
+    static int getRowsPerInsert(final int columnCount) {
+        return Math.max(1, Math.min(MAX_COMPOUND_SELECT, MAX_VARIABLE_NUMBER / columnCount));
+    }
+
+    /**
+     * insertAll 的方法定义: 每条 "insert into ... values (...), (...), ..." 语句插入多行, 所有语句在同一个事务中.
+     * 满的语句共用一个编译好的语句, 最后不满的一条再编译一个
+     *
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @param columnCount  每行的字段数
+     * @return 方法定义
+     */
+    private MethodSpec buildInsertAllMethodSpec(final TypeElement classElement, final int columnCount) {
+        final MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("insertAll");
+        methodBuilder.addModifiers(Modifier.PUBLIC, Modifier.STATIC);
+        methodBuilder.returns(int.class);
+
+        final TypeName typeName = TypeName.get(classElement.asType());
+        methodBuilder.addParameter(SQLITE_DATABASE, "db", Modifier.FINAL);
+        methodBuilder.addParameter(ParameterizedTypeName.get(ClassName.get(Collection.class),
+                WildcardTypeName.subtypeOf(typeName)), "beans", Modifier.FINAL);
+
+        methodBuilder.beginControlFlow("if (beans.isEmpty())");
+        methodBuilder.addStatement("return 0");
+        methodBuilder.endControlFlow();
+
+        methodBuilder.addCode("// $L columns per row\n", columnCount);
+        methodBuilder.addStatement("final int rowsPerStatement = $L", getRowsPerInsert(columnCount));
+        methodBuilder.addStatement("$T fullStatement = null", SQLITE_STATEMENT);
+        methodBuilder.addStatement("$T lastStatement = null", SQLITE_STATEMENT);
+
+        beginWriteTransaction(methodBuilder);
+        methodBuilder.addStatement("final $T<? extends $T> iterator = beans.iterator()", Iterator.class, typeName);
+        methodBuilder.addStatement("int remaining = beans.size()");
+        methodBuilder.beginControlFlow("while (remaining > 0)");
+        methodBuilder.addStatement("final int rows = Math.min(remaining, rowsPerStatement)");
+        methodBuilder.addStatement("final $T statement", SQLITE_STATEMENT);
+        methodBuilder.beginControlFlow("if (rows == rowsPerStatement)");
+        methodBuilder.beginControlFlow("if (fullStatement == null)");
+        methodBuilder.addStatement("fullStatement = db.compileStatement(buildInsertSql(rows))");
+        methodBuilder.endControlFlow();
+        methodBuilder.addStatement("statement = fullStatement");
+        methodBuilder.nextControlFlow("else");
+        methodBuilder.addStatement("lastStatement = db.compileStatement(buildInsertSql(rows))");
+        methodBuilder.addStatement("statement = lastStatement");
+        methodBuilder.endControlFlow();
+
+        methodBuilder.addStatement("statement.clearBindings()");
+        methodBuilder.addStatement("int index = 1");
+        methodBuilder.beginControlFlow("for (int i = 0; i < rows; i++)");
+        methodBuilder.addStatement("index = bindRow(statement, index, iterator.next())");
+        methodBuilder.endControlFlow();
+        methodBuilder.addStatement("statement.executeInsert()");
+        methodBuilder.addStatement("remaining -= rows");
+        methodBuilder.endControlFlow();
+        addPublishStatements(methodBuilder, classElement);
+        endWriteTransaction(methodBuilder);
+
+        methodBuilder.addStatement("return beans.size()");
+
+        return methodBuilder.build();
+    }
+
+    /**
+     * buildInsertSql 的方法定义: "insert into 表名 (a, b) values (?, ?), (?, ?), ..."
+     *
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @param insertFields 插入的字段
+     * @return 方法定义
+     */
+    private MethodSpec buildInsertSqlMethodSpec(final TypeElement classElement, final List<VariableElement> insertFields) {
+        final MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("buildInsertSql");
+        methodBuilder.addModifiers(Modifier.PRIVATE, Modifier.STATIC);
+        methodBuilder.returns(String.class);
+
+        methodBuilder.addParameter(int.class, "rows", Modifier.FINAL);
+
+        final StringBuilder prefix = new StringBuilder("insert into ");
+        prefix.append(SqliteSchemaUtils.getTableName(classElement));
+        prefix.append(" (");
+        final StringBuilder row = new StringBuilder("(");
+        for (int i = 0; i < insertFields.size(); i++) {
+            if (i > 0) {
+                prefix.append(", ");
+                row.append(", ");
+            }
+            prefix.append(insertFields.get(i).getSimpleName());
+            row.append("?");
+        }
+        prefix.append(") values ");
+        row.append(")");
+
+        methodBuilder.addStatement("final $T sql = new $T($S)", StringBuilder.class, StringBuilder.class, prefix.toString());
+        methodBuilder.beginControlFlow("for (int i = 0; i < rows; i++)");
+        methodBuilder.addStatement("sql.append(i == 0 ? $S : $S)", row.toString(), ", " + row);
+        methodBuilder.endControlFlow();
+        methodBuilder.addStatement("return sql.toString()");
+
+        return methodBuilder.build();
+    }
+
+    /**
+     * bindRow 的方法定义: 从index 开始绑定一行的值, 与toContentValues 的转换保持一致
+     *
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @param insertFields 插入的字段
+     * @return 方法定义
+     */
+    private MethodSpec buildBindRowMethodSpec(final TypeElement classElement, final List<VariableElement> insertFields) {
+        final MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder("bindRow");
+        methodBuilder.addModifiers(Modifier.PRIVATE, Modifier.STATIC);
+        methodBuilder.returns(int.class);
+
+        methodBuilder.addParameter(SQLITE_STATEMENT, "statement", Modifier.FINAL);
+        methodBuilder.addParameter(int.class, "index", Modifier.FINAL);
+        methodBuilder.addParameter(TypeName.get(classElement.asType()), "data", Modifier.FINAL);
+
+        for (int i = 0; i < insertFields.size(); i++) {
+            final String getFieldValueStatement = buildGetFieldValueStatement(insertFields.get(i));
+            if (i == 0) {
+                methodBuilder.addStatement("bindValue(statement, index, $L)", getFieldValueStatement);
+            } else {
+                methodBuilder.addStatement("bindValue(statement, index + $L, $L)", i, getFieldValueStatement);
+            }
+        }
+        methodBuilder.addStatement("return index + $L", insertFields.size());
+
+        return methodBuilder.build();
     }
 }
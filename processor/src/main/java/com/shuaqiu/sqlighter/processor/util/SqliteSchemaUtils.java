@@ -1,5 +1,6 @@
 package com.shuaqiu.sqlighter.processor.util;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -10,6 +11,7 @@ import javax.lang.model.util.Types;
 import com.shuaqiu.sqlighter.SqliteColumn;
 import com.shuaqiu.sqlighter.SqliteId;
 import com.shuaqiu.sqlighter.SqliteTable;
+import com.shuaqiu.sqlighter.sync.Change;
 
 /**
  * 生成 Schema
@@ -111,6 +113,51 @@ public class SqliteSchemaUtils {
         return ddl.toString();
     }
 
+    /**
+     * 生成变更日志的Schema: 变更日志表, 以及插入, 更新, 删除的触发器.
+     * 序号使用autoincrement, 删除已同步的日志后也不会重复使用
+     *
+     * @param typeUtils    Type 的Utility
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @return 变更日志的DDL 语句
+     */
+    public static List<String> generalChangeLogSchema(final Types typeUtils, final TypeElement classElement) {
+        final String table = getTableName(classElement);
+        final String changeLogTable = getChangeLogTableName(classElement);
+
+        // 没有主键时, 使用rowid
+        final VariableElement idField = getIdField(typeUtils, classElement);
+        final String idColumn = idField == null ? "rowid" : idField.getSimpleName().toString();
+        final String idType = idField == null ? "INTEGER" : getColumnType(typeUtils, idField);
+
+        final List<String> ddls = new ArrayList<>(4);
+        ddls.add("create table if not exists " + changeLogTable
+                + "(seq INTEGER primary key autoincrement, id " + idType + ", op INTEGER not null)");
+        final String oldId = "old." + idColumn;
+        final String newId = "new." + idColumn;
+        final String insertChange = "insert into " + changeLogTable + "(id, op) ";
+        ddls.add(getChangeTrigger(table, changeLogTable, "insert",
+                insertChange + "values (" + newId + ", " + Change.INSERT + ");"));
+        // 主键被修改时, 对同步方来说是删除了旧的行, 插入了新的行, 只记录新的主键会让旧的行永远残留
+        ddls.add(getChangeTrigger(table, changeLogTable, "update",
+                insertChange + "select " + oldId + ", " + Change.DELETE + " where " + oldId + " is not " + newId + "; "
+                        + insertChange + "select " + newId + ", case when " + oldId + " is " + newId
+                        + " then " + Change.UPDATE + " else " + Change.INSERT + " end;"));
+        ddls.add(getChangeTrigger(table, changeLogTable, "delete",
+                insertChange + "values (" + oldId + ", " + Change.DELETE + ");"));
+        return ddls;
+    }
+
+    /**
+     * 获取变更日志的表名
+     *
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @return 变更日志的表名
+     */
+    public static String getChangeLogTableName(final TypeElement classElement) {
+        return getTableName(classElement) + "_changes";
+    }
+
     /**
      * 获取表名
      *
@@ -127,6 +174,96 @@ public class SqliteSchemaUtils {
         return value;
     }
 
+    /**
+     * 获取需要映射到数据库的字段, 即排除了{@link SqliteColumn#ignore()} 的字段, 顺序与Schema 中的字段顺序一致
+     *
+     * @param typeUtils    Type 的Utility
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @return 映射到数据库的字段
+     */
+    public static List<VariableElement> getColumnFields(final Types typeUtils, final TypeElement classElement) {
+        final List<VariableElement> columns = new ArrayList<>();
+        for (final VariableElement field : FieldUtils.getFields(typeUtils, classElement)) {
+            final SqliteColumn sqliteColumn = field.getAnnotation(SqliteColumn.class);
+            if (sqliteColumn != null && sqliteColumn.ignore()) {
+                continue;
+            }
+            columns.add(field);
+        }
+        return columns;
+    }
+
+    /**
+     * 获取主键字段. 如果有多个{@link SqliteId} 标记的字段, 与Schema 一致, 以最后一个为准
+     *
+     * @param typeUtils    Type 的Utility
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @return 主键字段, 没有主键时返回null
+     */
+    public static VariableElement getIdField(final Types typeUtils, final TypeElement classElement) {
+        VariableElement idField = null;
+        for (final VariableElement field : getColumnFields(typeUtils, classElement)) {
+            if (field.getAnnotation(SqliteId.class) != null) {
+                idField = field;
+            }
+        }
+        return idField;
+    }
+
+    /**
+     * 判断读取时字段的值是否一定不为null: 基本类型的字段写入时总有值, 或者Schema 中的约束保证了不为null
+     *
+     * @param typeUtils    Type 的Utility
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @param fieldElement 字段
+     * @return 是否一定不为null
+     * @see #isSchemaNotNull(Types, TypeElement, VariableElement)
+     */
+    public static boolean isNotNull(final Types typeUtils, final TypeElement classElement,
+                                    final VariableElement fieldElement) {
+        return fieldElement.asType().getKind().isPrimitive() || isSchemaNotNull(typeUtils, classElement, fieldElement);
+    }
+
+    /**
+     * 判断Schema 中的字段是否不能为null, 与{@link #generalSchema(Types, TypeElement)} 生成的约束保持一致:
+     * <ul>
+     * <li>INTEGER 类型的主键, 即rowid 的别名. 有多个{@link SqliteId} 时只有最后一个是主键</li>
+     * <li>非主键且声明了{@link SqliteColumn#nullable()} 为false 的字段</li>
+     * </ul>
+     *
+     * @param typeUtils    Type 的Utility
+     * @param classElement 当前的{@link SqliteTable } 标记的Element
+     * @param fieldElement 字段
+     * @return 是否不能为null
+     */
+    public static boolean isSchemaNotNull(final Types typeUtils, final TypeElement classElement,
+                                          final VariableElement fieldElement) {
+        if (fieldElement.getAnnotation(SqliteId.class) != null) {
+            // 只有INTEGER PRIMARY KEY 才不会为null, 其他类型的主键在SQLite 中仍然可以为null;
+            // 不是最后一个的SqliteId 在Schema 中既不是主键, 也没有not null 约束
+            return fieldElement.equals(getIdField(typeUtils, classElement))
+                    && getColumnType(typeUtils, fieldElement).equals("INTEGER");
+        }
+
+        final SqliteColumn sqliteColumn = fieldElement.getAnnotation(SqliteColumn.class);
+        return sqliteColumn != null && !sqliteColumn.nullable();
+    }
+
+    /**
+     * 字段是否需要压缩: String 类型, 并且声明了{@link SqliteColumn#compress()}
+     *
+     * @param typeUtils    Type 的Utility
+     * @param fieldElement 字段
+     * @return 是否需要压缩
+     */
+    public static boolean isCompress(final Types typeUtils, final VariableElement fieldElement) {
+        final SqliteColumn sqliteColumn = fieldElement.getAnnotation(SqliteColumn.class);
+        if (sqliteColumn == null || !sqliteColumn.compress()) {
+            return false;
+        }
+        return FieldUtils.getFieldTypeQualifiedName(typeUtils, fieldElement).equals("java.lang.String");
+    }
+
     /**
      * 获取字段对应的数据库字段
      *
@@ -134,7 +271,12 @@ public class SqliteSchemaUtils {
      * @param fieldElement 字段
      * @return 数据库字段
      */
-    private static String getColumnType(final Types typeUtils, final VariableElement fieldElement) {
+    public static String getColumnType(final Types typeUtils, final VariableElement fieldElement) {
+        // 压缩的字段以BLOB 保存
+        if (isCompress(typeUtils, fieldElement)) {
+            return "BLOB";
+        }
+
         // 获取到这个字段的类型
         final String typeName = FieldUtils.getFieldTypeSimpleName(typeUtils, fieldElement);
 
@@ -158,4 +300,19 @@ public class SqliteSchemaUtils {
         final String constraintName = table + "_" + columnName;
         return "constraint " + constraintName + " unique (" + columnName + ")";
     }
+
+    /**
+     * 获取记录变更日志的触发器的语句
+     *
+     * @param table          表名
+     * @param changeLogTable 变更日志的表名
+     * @param event          insert, update, delete
+     * @param body           触发器中的语句, 每个语句以分号结尾
+     * @return 触发器的语句
+     */
+    private static String getChangeTrigger(final String table, final String changeLogTable, final String event,
+                                           final String body) {
+        return "create trigger if not exists " + changeLogTable + "_" + event + " after " + event + " on " + table
+                + " begin " + body + " end";
+    }
 }
@@ -14,4 +14,21 @@ public class StringUtils {
     public static String capitalize(final String str) {
         return str.substring(0, 1).toUpperCase() + str.substring(1);
     }
+
+    /**
+     * 将驼峰格式的字符串转换为常量名格式: countryCode -&gt; COUNTRY_CODE
+     * @param str 驼峰格式的字符串
+     * @return 常量名格式的字符串
+     */
+    public static String toConstantName(final String str) {
+        final StringBuilder name = new StringBuilder(str.length() + 4);
+        for (int i = 0; i < str.length(); i++) {
+            final char c = str.charAt(i);
+            if (i > 0 && Character.isUpperCase(c) && !Character.isUpperCase(str.charAt(i - 1))) {
+                name.append('_');
+            }
+            name.append(Character.toUpperCase(c));
+        }
+        return name.toString();
+    }
 }
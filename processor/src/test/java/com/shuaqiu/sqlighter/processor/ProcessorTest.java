@@ -2,9 +2,33 @@ package com.shuaqiu.sqlighter.processor;
 
 import com.google.common.truth.Truth;
 import com.google.testing.compile.JavaFileObjects;
+import com.shuaqiu.sqlighter.meta.Column;
+import org.junit.Assert;
 import org.junit.Test;
 
+import javax.annotation.processing.Processor;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import static com.google.testing.compile.JavaSourceSubjectFactory.javaSource;
+import static com.google.testing.compile.JavaSourcesSubjectFactory.javaSources;
 
 /**
  * Test
@@ -12,6 +36,16 @@ import static com.google.testing.compile.JavaSourceSubjectFactory.javaSource;
  */
 public class ProcessorTest {
 
+    private static final String[] STUBS = {
+            "stub/android/content/ContentValues.java",
+            "stub/android/database/Cursor.java",
+            "stub/android/database/sqlite/SQLiteDatabase.java",
+            "stub/android/database/sqlite/SQLiteException.java",
+            "stub/android/database/sqlite/SQLiteStatement.java",
+            "stub/android/os/Build.java",
+            "stub/android/util/Log.java"
+    };
+
     @Test
     public void testUtils() {
         Truth.ASSERT.about(javaSource())
@@ -20,4 +54,484 @@ public class ProcessorTest {
                 .failsToCompile()
                 .withErrorContaining("package android.content does not exist");
     }
+
+    @Test
+    public void testCompile() {
+        Truth.ASSERT.about(javaSources())
+                .that(sources("test/NotNullBean.java", "test/InternBean.java", "test/AppDatabase.java"))
+                .processedWith(new SqliteUtilsProcessor(), new SqliteDatabaseProcessor(), new SqliteColumnsProcessor())
+                .compilesWithoutError();
+    }
+
+    @Test
+    public void testInternRequiresString() {
+        Truth.ASSERT.about(javaSources())
+                .that(sources("test/InvalidInternBean.java"))
+                .processedWith(new SqliteUtilsProcessor())
+                .failsToCompile()
+                .withErrorContaining("The field status is int, only String field can be intern");
+    }
+
+    @Test
+    public void testCompressRequiresString() {
+        Truth.ASSERT.about(javaSources())
+                .that(sources("test/InvalidCompressBean.java"))
+                .processedWith(new SqliteUtilsProcessor())
+                .failsToCompile()
+                .withErrorContaining("The field size is java.lang.Long, only String field can be compress");
+    }
+
+    @Test
+    public void testInternAndCompressRejected() {
+        Truth.ASSERT.about(javaSources())
+                .that(sources("test/InternCompressBean.java"))
+                .processedWith(new SqliteUtilsProcessor())
+                .failsToCompile()
+                .withErrorContaining("The field payload can not be both intern and compress");
+    }
+
+    @Test
+    public void testFromCursorInterns() throws Exception {
+        final ClassLoader classLoader = compileAndLoad("test/InternBean.java", "test/RecordingCursor.java");
+        final Constructor<?> cursorConstructor = classLoader.loadClass("test.RecordingCursor").getConstructor(boolean.class);
+        final Object cursor = cursorConstructor.newInstance(false);
+
+        // Cursor 每次返回新的实例, 经过字典后是同一个实例
+        Assert.assertNotSame(invoke(cursor, "getString", 1), invoke(cursor, "getString", 1));
+
+        final Object first = fromCursor(classLoader, "test.InternBeanUtils", cursor);
+        final Object second = fromCursor(classLoader, "test.InternBeanUtils", cursor);
+        Assert.assertEquals("value", invoke(first, "getStatus"));
+        Assert.assertSame(invoke(first, "getStatus"), invoke(second, "getStatus"));
+        Assert.assertSame(invoke(first, "getCountryCode"), invoke(second, "getCountryCode"));
+    }
+
+    @Test
+    public void testFromCursorSkipsNullCheckForNotNullColumns() throws Exception {
+        final ClassLoader classLoader = compileAndLoad("test/NotNullBean.java", "test/RecordingCursor.java");
+        final Object cursor = classLoader.loadClass("test.RecordingCursor").newInstance();
+        final Object bean = fromCursor(classLoader, "test.NotNullBeanUtils", cursor);
+
+        // id, active, name, created 都不为null, 只有checked(Boolean), remark, updated(Date) 需要判断
+        Assert.assertEquals(Arrays.asList(2, 4, 6), invoke(cursor, "getNullChecks"));
+        Assert.assertNull(invoke(bean, "isChecked"));
+        Assert.assertNull(invoke(bean, "getRemark"));
+        Assert.assertNull(invoke(bean, "getUpdated"));
+        Assert.assertEquals("value", invoke(bean, "getName"));
+        Assert.assertNotNull(invoke(bean, "getCreated"));
+    }
+
+    @Test
+    public void testFromCursorChecksNullForNonPrimaryKeyId() throws Exception {
+        final ClassLoader classLoader = compileAndLoad("test/MultiIdBean.java", "test/RecordingCursor.java");
+        final Object cursor = classLoader.loadClass("test.RecordingCursor").newInstance();
+        final Object bean = fromCursor(classLoader, "test.MultiIdBeanUtils", cursor);
+
+        // 只有最后一个SqliteId 是INTEGER PRIMARY KEY, 前面的legacyId 仍然可以为null
+        Assert.assertEquals(Arrays.asList(0, 2), invoke(cursor, "getNullChecks"));
+        Assert.assertNull(invoke(bean, "getLegacyId"));
+        Assert.assertEquals(1L, invoke(bean, "getId"));
+    }
+
+    @Test
+    public void testFromResultSet() throws Exception {
+        final ClassLoader classLoader = compileAndLoad("test/NotNullBean.java");
+        final Class<?> utils = classLoader.loadClass("test.NotNullBeanUtils");
+
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+             Statement statement = connection.createStatement()) {
+            statement.execute((String) utils.getMethod("schema").invoke(null));
+            statement.executeUpdate("insert into NotNullBean values (1, 1, null, 'name', null, 1000, null)");
+            statement.executeUpdate("insert into NotNullBean values (2, 0, 0, 'name', 'remark', 1000, 2000)");
+
+            final Method fromResultSet = utils.getMethod("fromResultSet", ResultSet.class);
+            try (ResultSet resultSet = statement.executeQuery("select * from NotNullBean order by id")) {
+                Assert.assertTrue(resultSet.next());
+                final Object nulls = fromResultSet.invoke(null, resultSet);
+                Assert.assertEquals(true, invoke(nulls, "isActive"));
+                Assert.assertNull(invoke(nulls, "isChecked"));
+                Assert.assertNull(invoke(nulls, "getRemark"));
+                Assert.assertNull(invoke(nulls, "getUpdated"));
+
+                Assert.assertTrue(resultSet.next());
+                final Object values = fromResultSet.invoke(null, resultSet);
+                Assert.assertEquals(false, invoke(values, "isChecked"));
+                Assert.assertEquals("remark", invoke(values, "getRemark"));
+                Assert.assertEquals(new java.util.Date(2000), invoke(values, "getUpdated"));
+            }
+        }
+    }
+
+    @Test
+    public void testColumns() throws Exception {
+        final ClassLoader classLoader = compileAndLoad("test/NotNullBean.java", "test/MultiIdBean.java");
+        final Class<?> columns = classLoader.loadClass("test.NotNullBeanColumns");
+
+        // nullable 与Schema 的约束一致: 基本类型的active 在Schema 中没有not null 约束
+        Assert.assertFalse(((Column) columns.getField("ID").get(null)).isNullable());
+        Assert.assertTrue(((Column) columns.getField("ACTIVE").get(null)).isNullable());
+        Assert.assertFalse(((Column) columns.getField("NAME").get(null)).isNullable());
+        Assert.assertTrue(((Column) columns.getField("REMARK").get(null)).isNullable());
+
+        final Class<?> multiIdColumns = classLoader.loadClass("test.MultiIdBeanColumns");
+        Assert.assertTrue(((Column) multiIdColumns.getField("LEGACY_ID").get(null)).isNullable());
+        Assert.assertFalse(((Column) multiIdColumns.getField("ID").get(null)).isNullable());
+
+        @SuppressWarnings("unchecked")
+        final List<Column> all = (List<Column>) columns.getField("ALL").get(null);
+        Assert.assertEquals(7, all.size());
+        try {
+            all.set(0, all.get(1));
+            Assert.fail("ALL should be unmodifiable");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+
+        final Method projection = columns.getMethod("projection");
+        final String[] names = (String[]) projection.invoke(null);
+        Assert.assertEquals("id", names[0]);
+        names[0] = "modified";
+        Assert.assertEquals("id", ((String[]) projection.invoke(null))[0]);
+    }
+
+    @Test
+    public void testChangeLogOnPrimaryKeyUpdate() throws Exception {
+        final ClassLoader classLoader = compileAndLoad("test/InternBean.java");
+        final Class<?> utils = classLoader.loadClass("test.InternBeanUtils");
+
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+             Statement statement = connection.createStatement()) {
+            statement.execute((String) utils.getMethod("schema").invoke(null));
+            for (final String ddl : (String[]) utils.getMethod("changeLogSchema").invoke(null)) {
+                statement.execute(ddl);
+            }
+
+            statement.executeUpdate("insert into InternBean(id, status) values (1, 'new')");
+            statement.executeUpdate("update InternBean set status = 'done' where id = 1");
+            // 修改主键: 旧的主键记为删除, 新的主键记为插入
+            statement.executeUpdate("update InternBean set id = 2 where id = 1");
+            statement.executeUpdate("delete from InternBean where id = 2");
+
+            Assert.assertEquals(Arrays.asList("1:1", "1:2", "1:3", "2:1", "2:3"), readChanges(statement));
+        }
+    }
+
+    private static List<String> readChanges(final Statement statement) throws SQLException {
+        final List<String> changes = new ArrayList<String>();
+        try (ResultSet resultSet = statement.executeQuery("select id, op from InternBean_changes order by seq")) {
+            while (resultSet.next()) {
+                changes.add(resultSet.getLong(1) + ":" + resultSet.getInt(2));
+            }
+        }
+        return changes;
+    }
+
+    @Test
+    public void testChangesSince() throws Exception {
+        final ClassLoader classLoader = compileAndLoad("test/InternBean.java", "test/ChangeLogDriver.java");
+        final Method changesSince = classLoader.loadClass("test.ChangeLogDriver")
+                .getMethod("changesSince", int.class, long.class, int.class);
+
+        // 按seq 排序, 与写入的顺序无关; 主键为null 的变更也能读出
+        Assert.assertEquals(Arrays.asList(
+                "Change{seq=1, id=10, op=2}",
+                "Change{seq=2, id=20, op=3}",
+                "Change{seq=3, id=30, op=1}",
+                "Change{seq=4, id=40, op=2}",
+                "Change{seq=5, id=null, op=3}",
+                "Change{seq=6, id=60, op=1}"), changesSince.invoke(null, 6, 0L, 100));
+
+        // limit
+        Assert.assertEquals(Arrays.asList(
+                "Change{seq=3, id=30, op=1}",
+                "Change{seq=4, id=40, op=2}"), changesSince.invoke(null, 6, 2L, 2));
+
+        // seq 以字符串绑定, 按INTEGER 的亲和性比较, 而不是按字符串比较('9' > '10')
+        Assert.assertEquals(Arrays.asList(
+                "Change{seq=10, id=null, op=2}",
+                "Change{seq=11, id=110, op=3}",
+                "Change{seq=12, id=120, op=1}"), changesSince.invoke(null, 12, 9L, 100));
+
+        Assert.assertEquals(Collections.emptyList(), changesSince.invoke(null, 6, 6L, 100));
+    }
+
+    @Test
+    public void testAckUpTo() throws Exception {
+        final ClassLoader classLoader = compileAndLoad("test/InternBean.java", "test/ChangeLogDriver.java");
+        final Method ackUpTo = classLoader.loadClass("test.ChangeLogDriver").getMethod("ackUpTo", int.class, long.class);
+
+        // 每次最多删除1000 条, 直到没有可删除的; 删除之后只通知变更日志表, 没有删除时不通知
+        Assert.assertEquals(Arrays.asList(
+                "notified:[internbean_changes]",
+                "acked=2400, updates=[1000, 1000, 400, 0]",
+                "remaining=100, first=2401",
+                "acked=0, updates=[0]",
+                "remaining=100, first=2401"), ackUpTo.invoke(null, 2500, 2400L));
+
+        Assert.assertEquals(Arrays.asList(
+                "notified:[internbean_changes]",
+                "acked=1000, updates=[1000, 0]",
+                "remaining=0",
+                "acked=0, updates=[0]",
+                "remaining=0"), ackUpTo.invoke(null, 1000, 5000L));
+    }
+
+    @Test
+    public void testNotifyAfterCommit() throws Exception {
+        final ClassLoader classLoader = compileAndLoad("test/InternBean.java", "test/TransactionDriver.java");
+        final Class<?> driver = classLoader.loadClass("test.TransactionDriver");
+
+        // 记录变更日志的表, 同时通知变更日志表
+        Assert.assertEquals(Arrays.asList("[internbean, internbean_changes]"),
+                invoke(driver.newInstance(), "insert"));
+
+        // 嵌套: 加入调用方的事务, 提交前不通知, 提交后合并为一个通知
+        Assert.assertEquals(Arrays.asList("inside:0", "[internbean, internbean_changes]"),
+                invoke(driver.newInstance(), "insertInTransaction"));
+
+        // 提交失败(endTransaction 抛出异常) 不通知
+        Assert.assertEquals(Arrays.asList("failed:commit failed"),
+                invoke(driver.newInstance(), "insertWithFailedCommit"));
+    }
+
+    @Test
+    public void testConfigurePragmas() throws Exception {
+        final ClassLoader classLoader = compileAndLoad("test/NotNullBean.java", "test/InternBean.java",
+                "test/AppDatabase.java", "test/PragmaDriver.java");
+        final Method configure = classLoader.loadClass("test.PragmaDriver").getMethod("configure", int.class, String.class);
+
+        final List<String> verify = Arrays.asList(
+                "rawQuery: PRAGMA page_size",
+                "rawQuery: PRAGMA journal_mode",
+                "rawQuery: PRAGMA synchronous",
+                "rawQuery: PRAGMA cache_size",
+                "rawQuery: PRAGMA mmap_size",
+                "rawQuery: PRAGMA temp_store");
+
+        // API 30: page_size 在WAL 之前; mmap_size 会返回一行结果, 不经过execPerConnectionSQL
+        final List<String> expected = new ArrayList<String>(Arrays.asList(
+                "rawQuery: PRAGMA page_size = 4096",
+                "enableWriteAheadLogging",
+                "execPerConnectionSQL: PRAGMA synchronous = NORMAL",
+                "execPerConnectionSQL: PRAGMA cache_size = -8000",
+                "rawQuery: PRAGMA mmap_size = 268435456",
+                "execPerConnectionSQL: PRAGMA temp_store = MEMORY"));
+        expected.addAll(verify);
+        expected.add("ok=true");
+        Assert.assertEquals(expected, configure.invoke(null, 30, null));
+
+        // API 30 以下都只能通过rawQuery 作用于主连接
+        expected.clear();
+        expected.addAll(Arrays.asList(
+                "rawQuery: PRAGMA page_size = 4096",
+                "enableWriteAheadLogging",
+                "rawQuery: PRAGMA synchronous = NORMAL",
+                "rawQuery: PRAGMA cache_size = -8000",
+                "rawQuery: PRAGMA mmap_size = 268435456",
+                "rawQuery: PRAGMA temp_store = MEMORY"));
+        expected.addAll(verify);
+        expected.add("ok=true");
+        Assert.assertEquals(expected, configure.invoke(null, 29, null));
+
+        // 没有生效的PRAGMA 打印警告, 其余的PRAGMA 仍然检查
+        @SuppressWarnings("unchecked")
+        final List<String> ignored = (List<String>) configure.invoke(null, 30, "page_size");
+        Assert.assertEquals(Arrays.asList(
+                "AppDatabase: PRAGMA page_size did not take effect, expected: 4096, actual: null",
+                "ok=false"), ignored.subList(ignored.size() - 2, ignored.size()));
+        Assert.assertEquals(verify, ignored.subList(ignored.size() - 2 - verify.size(), ignored.size() - 2));
+    }
+
+    @Test
+    public void testCheckQueryPlans() throws Exception {
+        final ClassLoader classLoader = compileAndLoad("test/NotNullBean.java", "test/InternBean.java", "test/AppDatabase.java");
+        final Method checkQueryPlans = classLoader.loadClass("test.AppDatabaseHelper")
+                .getMethod("checkQueryPlans", Connection.class, String[].class);
+
+        // 生成的语句都使用主键或rowid, 没有问题
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            Assert.assertEquals(Collections.emptyList(), checkQueryPlans.invoke(null, connection, new String[0]));
+        }
+
+        // NotNullBean 标记为large, 不允许全表扫描; InternBean 不是大表, 只检查ORDER BY
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            // 应用自己建的索引, schema() 使用if not exists, 可以先于checkQueryPlans 创建
+            try (Statement statement = connection.createStatement()) {
+                statement.execute((String) classLoader.loadClass("test.InternBeanUtils").getMethod("schema").invoke(null));
+                statement.execute("create index InternBean_status on InternBean(status)");
+            }
+            @SuppressWarnings("unchecked")
+            final List<String> problems = (List<String>) checkQueryPlans.invoke(null, connection, new String[]{
+                    "select * from NotNullBean where name = ?",
+                    "select * from InternBean where status = ?",
+                    "select * from InternBean order by countryCode",
+                    "select * from InternBean where status > ? order by status, countryCode"});
+            Assert.assertEquals(problems.toString(), 3, problems.size());
+            Assert.assertTrue(problems.get(0), problems.get(0).startsWith(
+                    "full scan on large table NotNullBean: select * from NotNullBean where name = ?"));
+            Assert.assertTrue(problems.get(1), problems.get(1).startsWith(
+                    "ORDER BY uses a temp B-tree: select * from InternBean order by countryCode"));
+            // 只对部分排序字段使用临时B-tree
+            Assert.assertTrue(problems.get(2), problems.get(2).startsWith("ORDER BY uses a temp B-tree")
+                    && problems.get(2).endsWith("USE TEMP B-TREE FOR RIGHT PART OF ORDER BY"));
+        }
+    }
+
+    @Test
+    public void testExecuteByIdsChunks() throws Exception {
+        final ClassLoader classLoader = compileAndLoad("test/NotNullBean.java", "test/IdsDriver.java");
+        final Class<?> driver = classLoader.loadClass("test.IdsDriver");
+        final Method deleteByIds = driver.getMethod("deleteByIds", int.class);
+        final Method updateColumnByIds = driver.getMethod("updateColumnByIds", String.class, int.class);
+
+        // 每块999 个主键, 正好一块
+        Assert.assertEquals(Arrays.asList(
+                "rows=1, binds=999, first=0, last=998",
+                "compiled=1"), deleteByIds.invoke(null, 999));
+        Assert.assertEquals(Arrays.asList(
+                "rows=1, binds=999, first=0, last=998",
+                "rows=1, binds=1, first=999, last=999",
+                "compiled=2"), deleteByIds.invoke(null, 1000));
+        // 满块共用一个编译好的语句
+        Assert.assertEquals(Arrays.asList(
+                "rows=1, binds=999, first=0, last=998",
+                "rows=1, binds=999, first=999, last=1997",
+                "compiled=1"), deleteByIds.invoke(null, 1998));
+        Assert.assertEquals(Arrays.asList(
+                "rows=1, binds=999, first=0, last=998",
+                "rows=1, binds=999, first=999, last=1997",
+                "rows=1, binds=502, first=1998, last=2499",
+                "compiled=2"), deleteByIds.invoke(null, 2500));
+
+        // update 的值占用一个绑定变量, 每块998 个主键
+        Assert.assertEquals(Arrays.asList(
+                "rows=1, binds=999, first=v, last=997",
+                "compiled=1"), updateColumnByIds.invoke(null, "remark", 998));
+        Assert.assertEquals(Arrays.asList(
+                "rows=1, binds=999, first=v, last=997",
+                "rows=1, binds=2, first=v, last=998",
+                "compiled=2"), updateColumnByIds.invoke(null, "remark", 999));
+        Assert.assertEquals(Arrays.asList(
+                "rows=1, binds=999, first=v, last=997",
+                "rows=1, binds=3, first=v, last=999",
+                "compiled=2"), updateColumnByIds.invoke(null, "remark", 1000));
+
+        // 不在白名单中的字段
+        try {
+            updateColumnByIds.invoke(null, "remark = null, name", 1);
+            Assert.fail("unknown column should be rejected");
+        } catch (InvocationTargetException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalArgumentException);
+            Assert.assertEquals("unknown column: remark = null, name", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testUpdateCompressedColumnByIds() throws Exception {
+        final ClassLoader classLoader = compileAndLoad("test/InternBean.java", "test/CompressDriver.java");
+        final Method updatePayload = classLoader.loadClass("test.CompressDriver").getMethod("updatePayload", Object.class);
+
+        // 与insertAll 一样带压缩的头部写入BLOB, 读取时不依赖没有头部的TEXT 的兼容处理
+        Assert.assertEquals("blob:true blob:true", updatePayload.invoke(null, "short"));
+        final StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            large.append("payload ").append(i).append(' ');
+        }
+        Assert.assertEquals("blob:true blob:true", updatePayload.invoke(null, large.toString()));
+        // 直接写入TEXT 时, 以0x01 开头的值会被当作DEFLATE 的头部
+        Assert.assertEquals("blob:true blob:true", updatePayload.invoke(null, "\u0001abcdefgh"));
+        Assert.assertEquals("null:true null:true", updatePayload.invoke(null, (Object) null));
+
+        try {
+            updatePayload.invoke(null, 1L);
+            Assert.fail("non String value for a compressed column");
+        } catch (InvocationTargetException e) {
+            Assert.assertEquals("a String value is required for the compressed column: payload", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testInsertAllRemainder() throws Exception {
+        final ClassLoader classLoader = compileAndLoad("test/InternBean.java", "test/InsertDriver.java");
+        final Method insertAll = classLoader.loadClass("test.InsertDriver").getMethod("insertAll", int.class);
+
+        // InternBean 插入3 个字段(自增主键不插入), 每条语句333 行; payload 为null, 每行最后绑定的是null
+        Assert.assertEquals(333, SqliteUtilsProcessor.getRowsPerInsert(3));
+
+        // 没有余数: 只编译一个满的语句, 重复使用
+        Assert.assertEquals(Arrays.asList(
+                "rows=333, binds=999, first=s0, last=null",
+                "rows=333, binds=999, first=s333, last=null",
+                "compiled=1, inserted=666"), insertAll.invoke(null, 666));
+
+        // 余数为1
+        Assert.assertEquals(Arrays.asList(
+                "rows=333, binds=999, first=s0, last=null",
+                "rows=1, binds=3, first=s333, last=null",
+                "compiled=2, inserted=334"), insertAll.invoke(null, 334));
+
+        // 余数为rowsPerStatement - 1
+        Assert.assertEquals(Arrays.asList(
+                "rows=333, binds=999, first=s0, last=null",
+                "rows=332, binds=996, first=s333, last=null",
+                "compiled=2, inserted=665"), insertAll.invoke(null, 665));
+
+        // 不足一条语句
+        Assert.assertEquals(Arrays.asList(
+                "rows=1, binds=3, first=s0, last=null",
+                "compiled=1, inserted=1"), insertAll.invoke(null, 1));
+    }
+
+    /**
+     * 使用Processor 编译stub 和指定的源文件, 并加载编译后的类, 用于验证生成代码的行为
+     *
+     * @param resources 源文件的资源路径
+     * @return 可以加载编译后的类的ClassLoader
+     */
+    private static ClassLoader compileAndLoad(final String... resources) throws Exception {
+        final File outputDir = Files.createTempDirectory("sqlighter").toFile();
+
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final JavaCompiler.CompilationTask task = compiler.getTask(null, null, null,
+                Arrays.asList("-d", outputDir.getPath(), "-classpath", System.getProperty("java.class.path")),
+                null, sources(resources));
+        task.setProcessors(Arrays.<Processor>asList(
+                new SqliteUtilsProcessor(), new SqliteDatabaseProcessor(), new SqliteColumnsProcessor()));
+        Assert.assertTrue("compilation failed", task.call());
+
+        return new URLClassLoader(new URL[]{outputDir.toURI().toURL()}, ProcessorTest.class.getClassLoader());
+    }
+
+    /**
+     * stub 和指定的源文件
+     *
+     * @param resources 源文件的资源路径
+     * @return 源文件
+     */
+    private static List<JavaFileObject> sources(final String... resources) {
+        final List<JavaFileObject> sources = new ArrayList<JavaFileObject>();
+        for (final String stub : STUBS) {
+            sources.add(JavaFileObjects.forResource(stub));
+        }
+        for (final String resource : resources) {
+            sources.add(JavaFileObjects.forResource(resource));
+        }
+        return sources;
+    }
+
+    private static Object fromCursor(final ClassLoader classLoader, final String utilsName, final Object cursor)
+            throws Exception {
+        final Class<?> cursorClass = classLoader.loadClass("android.database.Cursor");
+        return classLoader.loadClass(utilsName).getMethod("fromCursor", cursorClass).invoke(null, cursor);
+    }
+
+    private static Object invoke(final Object target, final String methodName) throws Exception {
+        final Method method = target.getClass().getMethod(methodName);
+        return method.invoke(target);
+    }
+
+    private static Object invoke(final Object target, final String methodName, final int arg) throws Exception {
+        final Method method = target.getClass().getMethod(methodName, int.class);
+        return method.invoke(target, arg);
+    }
 }
@@ -0,0 +1,31 @@
+package android.content;
+
+/**
+ * Stub of android.content.ContentValues for compile test
+ */
+public final class ContentValues {
+
+    public void put(String key, String value) {
+    }
+
+    public void put(String key, Integer value) {
+    }
+
+    public void put(String key, Long value) {
+    }
+
+    public void put(String key, Float value) {
+    }
+
+    public void put(String key, Double value) {
+    }
+
+    public void put(String key, Boolean value) {
+    }
+
+    public void put(String key, byte[] value) {
+    }
+
+    public void putNull(String key) {
+    }
+}
@@ -0,0 +1,27 @@
+package android.database;
+
+/**
+ * Stub of android.database.Cursor for compile test
+ */
+public interface Cursor {
+
+    boolean moveToFirst();
+
+    boolean moveToNext();
+
+    void close();
+
+    boolean isNull(int columnIndex);
+
+    int getInt(int columnIndex);
+
+    long getLong(int columnIndex);
+
+    float getFloat(int columnIndex);
+
+    double getDouble(int columnIndex);
+
+    String getString(int columnIndex);
+
+    byte[] getBlob(int columnIndex);
+}
@@ -0,0 +1,349 @@
+package android.database.sqlite;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import android.database.Cursor;
+
+/**
+ * Stub of android.database.sqlite.SQLiteDatabase for compile test, tracks the transaction depth,
+ * records the compiled and executed statements, and keeps the PRAGMA values set through rawQuery and execPerConnectionSQL.
+ * Created with a JDBC connection, the statements and the queries other than PRAGMA also run on that connection
+ */
+public final class SQLiteDatabase {
+
+    /** PRAGMAs that return a row when set, execPerConnectionSQL rejects them */
+    private static final List<String> ROW_RETURNING_PRAGMAS = Arrays.asList("journal_mode", "mmap_size");
+
+    /** the names are stored as numbers, as sqlite reports them */
+    private static final Map<String, List<String>> PRAGMA_ENUMS = new HashMap<String, List<String>>();
+
+    static {
+        PRAGMA_ENUMS.put("synchronous", Arrays.asList("OFF", "NORMAL", "FULL", "EXTRA"));
+        PRAGMA_ENUMS.put("temp_store", Arrays.asList("DEFAULT", "FILE", "MEMORY"));
+    }
+
+    private final List<String> pragmaCalls = new ArrayList<String>();
+
+    private final Map<String, String> pragmas = new HashMap<String, String>();
+
+    private final List<String> ignoredPragmas = new ArrayList<String>();
+
+    private final Connection connection;
+
+    private int transactionDepth;
+
+    private int compiled;
+
+    private final List<String> executed = new ArrayList<String>();
+
+    private final List<Integer> updateCounts = new ArrayList<Integer>();
+
+    private boolean failEndTransaction;
+
+    public SQLiteDatabase() {
+        this(null);
+    }
+
+    public SQLiteDatabase(Connection connection) {
+        this.connection = connection;
+    }
+
+    public void setFailEndTransaction(boolean failEndTransaction) {
+        this.failEndTransaction = failEndTransaction;
+    }
+
+    public int getCompiled() {
+        return compiled;
+    }
+
+    /**
+     * @return one entry per execution: "rows=..., binds=..., first=..., last=...", rows is the number of VALUES groups
+     */
+    public List<String> getExecuted() {
+        return executed;
+    }
+
+    /**
+     * @return the number of rows changed by each executeUpdateDelete, always 0 without a JDBC connection
+     */
+    public List<Integer> getUpdateCounts() {
+        return updateCounts;
+    }
+
+    /**
+     * @return one entry per PRAGMA call, in order: "rawQuery: ...", "execPerConnectionSQL: ..." or "enableWriteAheadLogging"
+     */
+    public List<String> getPragmaCalls() {
+        return pragmaCalls;
+    }
+
+    /**
+     * setting the PRAGMA is accepted but does not take effect, e.g. page_size on an existing database
+     */
+    public void ignorePragma(String name) {
+        ignoredPragmas.add(name);
+    }
+
+    void record(String sql, TreeMap<Integer, Object> bindings) {
+        final int rows = sql.split("\\), \\(").length;
+        final List<Object> values = new ArrayList<Object>(bindings.values());
+        final Integer lastIndex = bindings.isEmpty() ? 0 : bindings.lastKey();
+        if (lastIndex != values.size()) {
+            throw new IllegalStateException("bindings are not contiguous: " + bindings.keySet());
+        }
+        executed.add("rows=" + rows + ", binds=" + values.size()
+                + ", first=" + (values.isEmpty() ? null : values.get(0))
+                + ", last=" + (values.isEmpty() ? null : values.get(values.size() - 1)));
+    }
+
+    int update(String sql, TreeMap<Integer, Object> bindings) {
+        record(sql, bindings);
+        int count = 0;
+        if (connection != null) {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (Map.Entry<Integer, Object> binding : bindings.entrySet()) {
+                    if (binding.getValue() == null) {
+                        statement.setNull(binding.getKey(), Types.NULL);
+                    } else {
+                        statement.setObject(binding.getKey(), binding.getValue());
+                    }
+                }
+                count = statement.executeUpdate();
+            } catch (SQLException e) {
+                throw new SQLiteException(e.getMessage());
+            }
+        }
+        updateCounts.add(count);
+        return count;
+    }
+
+    public void execSQL(String sql) {
+        if (connection != null) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(sql);
+            } catch (SQLException e) {
+                throw new SQLiteException(e.getMessage());
+            }
+        }
+    }
+
+    public Cursor rawQuery(String sql, String[] selectionArgs) {
+        if (!sql.startsWith("PRAGMA ")) {
+            return connection == null ? null : query(sql, selectionArgs);
+        }
+        pragmaCalls.add("rawQuery: " + sql);
+        final String[] assignment = sql.substring("PRAGMA ".length()).split(" = ");
+        if (assignment.length == 2) {
+            setPragma(assignment[0], assignment[1]);
+        }
+        return new PragmaCursor(pragmas.get(assignment[0]));
+    }
+
+    public void execPerConnectionSQL(String sql, Object[] bindArgs) {
+        pragmaCalls.add("execPerConnectionSQL: " + sql);
+        final String[] assignment = sql.substring("PRAGMA ".length()).split(" = ");
+        if (ROW_RETURNING_PRAGMAS.contains(assignment[0])) {
+            throw new SQLiteException("Queries can be performed using SQLiteDatabase query or rawQuery methods only.");
+        }
+        setPragma(assignment[0], assignment[1]);
+    }
+
+    public boolean enableWriteAheadLogging() {
+        pragmaCalls.add("enableWriteAheadLogging");
+        setPragma("journal_mode", "wal");
+        return true;
+    }
+
+    /**
+     * like Android, the selection arguments are always bound as strings
+     */
+    private Cursor query(String sql, String[] selectionArgs) {
+        try {
+            final PreparedStatement statement = connection.prepareStatement(sql);
+            if (selectionArgs != null) {
+                for (int i = 0; i < selectionArgs.length; i++) {
+                    statement.setString(i + 1, selectionArgs[i]);
+                }
+            }
+            return new ResultSetCursor(statement);
+        } catch (SQLException e) {
+            throw new SQLiteException(e.getMessage());
+        }
+    }
+
+    private void setPragma(String name, String value) {
+        if (ignoredPragmas.contains(name)) {
+            return;
+        }
+        final List<String> names = PRAGMA_ENUMS.get(name);
+        pragmas.put(name, names == null ? value : String.valueOf(names.indexOf(value)));
+    }
+
+    public void beginTransaction() {
+        transactionDepth++;
+    }
+
+    public void setTransactionSuccessful() {
+    }
+
+    public void endTransaction() {
+        transactionDepth--;
+        if (failEndTransaction) {
+            throw new SQLiteException("commit failed");
+        }
+    }
+
+    public boolean inTransaction() {
+        return transactionDepth > 0;
+    }
+
+    public SQLiteStatement compileStatement(String sql) {
+        compiled++;
+        return new SQLiteStatement(this, sql);
+    }
+
+    /**
+     * single row, single column cursor holding the PRAGMA value, empty if the value is unknown
+     */
+    private static final class PragmaCursor implements Cursor {
+
+        private final String value;
+
+        PragmaCursor(String value) {
+            this.value = value;
+        }
+
+        public boolean moveToFirst() {
+            return value != null;
+        }
+
+        public boolean moveToNext() {
+            return false;
+        }
+
+        public void close() {
+        }
+
+        public boolean isNull(int columnIndex) {
+            return value == null;
+        }
+
+        public int getInt(int columnIndex) {
+            return Integer.parseInt(value);
+        }
+
+        public long getLong(int columnIndex) {
+            return Long.parseLong(value);
+        }
+
+        public float getFloat(int columnIndex) {
+            return Float.parseFloat(value);
+        }
+
+        public double getDouble(int columnIndex) {
+            return Double.parseDouble(value);
+        }
+
+        public String getString(int columnIndex) {
+            return value;
+        }
+
+        public byte[] getBlob(int columnIndex) {
+            return value.getBytes();
+        }
+    }
+
+    /**
+     * Cursor over a JDBC ResultSet, the column index starts from 0 as in Android
+     */
+    private static final class ResultSetCursor implements Cursor {
+
+        private final PreparedStatement statement;
+
+        private final ResultSet resultSet;
+
+        ResultSetCursor(PreparedStatement statement) throws SQLException {
+            this.statement = statement;
+            this.resultSet = statement.executeQuery();
+        }
+
+        public boolean moveToFirst() {
+            throw new UnsupportedOperationException("forward only");
+        }
+
+        public boolean moveToNext() {
+            try {
+                return resultSet.next();
+            } catch (SQLException e) {
+                throw new SQLiteException(e.getMessage());
+            }
+        }
+
+        public void close() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                throw new SQLiteException(e.getMessage());
+            }
+        }
+
+        public boolean isNull(int columnIndex) {
+            try {
+                return resultSet.getObject(columnIndex + 1) == null;
+            } catch (SQLException e) {
+                throw new SQLiteException(e.getMessage());
+            }
+        }
+
+        public int getInt(int columnIndex) {
+            return (int) getLong(columnIndex);
+        }
+
+        public long getLong(int columnIndex) {
+            try {
+                return resultSet.getLong(columnIndex + 1);
+            } catch (SQLException e) {
+                throw new SQLiteException(e.getMessage());
+            }
+        }
+
+        public float getFloat(int columnIndex) {
+            return (float) getDouble(columnIndex);
+        }
+
+        public double getDouble(int columnIndex) {
+            try {
+                return resultSet.getDouble(columnIndex + 1);
+            } catch (SQLException e) {
+                throw new SQLiteException(e.getMessage());
+            }
+        }
+
+        public String getString(int columnIndex) {
+            try {
+                return resultSet.getString(columnIndex + 1);
+            } catch (SQLException e) {
+                throw new SQLiteException(e.getMessage());
+            }
+        }
+
+        public byte[] getBlob(int columnIndex) {
+            try {
+                return resultSet.getBytes(columnIndex + 1);
+            } catch (SQLException e) {
+                throw new SQLiteException(e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package android.database.sqlite;
+
+/**
+ * Stub of android.database.sqlite.SQLiteException for compile test
+ */
+public class SQLiteException extends RuntimeException {
+
+    public SQLiteException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,55 @@
+package android.database.sqlite;
+
+import java.util.TreeMap;
+
+/**
+ * Stub of android.database.sqlite.SQLiteStatement for compile test, records the executions to the database,
+ * and runs executeUpdateDelete on its JDBC connection if there is one
+ */
+public final class SQLiteStatement {
+
+    private final SQLiteDatabase db;
+    private final String sql;
+    private final TreeMap<Integer, Object> bindings = new TreeMap<Integer, Object>();
+
+    SQLiteStatement(SQLiteDatabase db, String sql) {
+        this.db = db;
+        this.sql = sql;
+    }
+
+    public void bindNull(int index) {
+        bindings.put(index, null);
+    }
+
+    public void bindLong(int index, long value) {
+        bindings.put(index, value);
+    }
+
+    public void bindDouble(int index, double value) {
+        bindings.put(index, value);
+    }
+
+    public void bindString(int index, String value) {
+        bindings.put(index, value);
+    }
+
+    public void bindBlob(int index, byte[] value) {
+        bindings.put(index, value);
+    }
+
+    public void clearBindings() {
+        bindings.clear();
+    }
+
+    public int executeUpdateDelete() {
+        return db.update(sql, bindings);
+    }
+
+    public long executeInsert() {
+        db.record(sql, bindings);
+        return 0;
+    }
+
+    public void close() {
+    }
+}
@@ -0,0 +1,13 @@
+package android.os;
+
+/**
+ * Stub of android.os.Build for compile test
+ */
+public class Build {
+
+    public static class VERSION {
+
+        /** not final, so the tests can switch to an older version */
+        public static int SDK_INT = 30;
+    }
+}
@@ -0,0 +1,21 @@
+package android.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stub of android.util.Log for compile test, records the warnings
+ */
+public final class Log {
+
+    private static final List<String> warnings = new ArrayList<String>();
+
+    public static List<String> getWarnings() {
+        return warnings;
+    }
+
+    public static int w(String tag, String msg) {
+        warnings.add(tag + ": " + msg);
+        return 0;
+    }
+}
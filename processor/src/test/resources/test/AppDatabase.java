@@ -0,0 +1,10 @@
+package test;
+
+import com.shuaqiu.sqlighter.SqliteDatabase;
+
+/**
+ * Database for test
+ */
+@SqliteDatabase(tables = {NotNullBean.class, InternBean.class}, pageSize = 4096, cacheSize = -8000, mmapSize = 268435456)
+public class AppDatabase {
+}
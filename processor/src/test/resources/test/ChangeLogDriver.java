@@ -0,0 +1,79 @@
+package test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import android.database.sqlite.SQLiteDatabase;
+import com.shuaqiu.sqlighter.observe.InvalidationBus;
+import com.shuaqiu.sqlighter.sync.Change;
+
+/**
+ * Drives the generated InternBeanUtils changesSince and ackUpTo on an in-memory sqlite database
+ */
+public class ChangeLogDriver {
+
+    /**
+     * the change log gets seq 1 to count, written in reverse order, every fifth one has a null id
+     */
+    public static List<String> changesSince(int count, long seq, int limit) throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            final SQLiteDatabase db = open(connection);
+            for (int i = count; i > 0; i--) {
+                final String id = i % 5 == 0 ? "null" : String.valueOf(i * 10);
+                db.execSQL("insert into InternBean_changes(seq, id, op) values (" + i + ", " + id + ", " + (i % 3 + 1) + ")");
+            }
+            final List<String> result = new ArrayList<String>();
+            for (final Change<Long> change : InternBeanUtils.changesSince(db, seq, limit)) {
+                result.add(change.toString());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * the change log gets seq 1 to count, then ackUpTo(seq): the update counts, the notifications,
+     * what remains of the change log, and the same with a second ackUpTo(seq)
+     */
+    public static List<String> ackUpTo(int count, long seq) throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            final SQLiteDatabase db = open(connection);
+            db.execSQL("insert into InternBean_changes(id, op) with recursive n(i) as "
+                    + "(select 1 union all select i + 1 from n where i < " + count + ") select i, 1 from n");
+
+            final List<String> result = new ArrayList<String>();
+            final InvalidationBus.Subscription subscription = InvalidationBus.getDefault().subscribe(
+                    new InvalidationBus.Listener() {
+                        @Override
+                        public void onInvalidated(Set<String> tables) {
+                            result.add("notified:" + new TreeSet<String>(tables));
+                        }
+                    }, "InternBean_changes");
+            try {
+                for (int i = 0; i < 2; i++) {
+                    db.getUpdateCounts().clear();
+                    result.add("acked=" + InternBeanUtils.ackUpTo(db, seq) + ", updates=" + db.getUpdateCounts());
+                    final List<Change<Long>> remaining = InternBeanUtils.changesSince(db, 0, Integer.MAX_VALUE);
+                    result.add("remaining=" + remaining.size()
+                            + (remaining.isEmpty() ? "" : ", first=" + remaining.get(0).getSeq()));
+                }
+            } finally {
+                subscription.unsubscribe();
+            }
+            return result;
+        }
+    }
+
+    private static SQLiteDatabase open(Connection connection) {
+        final SQLiteDatabase db = new SQLiteDatabase(connection);
+        db.execSQL(InternBeanUtils.schema());
+        for (final String ddl : InternBeanUtils.changeLogSchema()) {
+            db.execSQL(ddl);
+        }
+        return db;
+    }
+}
@@ -0,0 +1,43 @@
+package test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * Drives the generated InternBeanUtils updateColumnByIds on the compressed payload column of an in-memory sqlite database
+ */
+public class CompressDriver {
+
+    /**
+     * @return the storage class of the stored payload, and whether it reads back equal to the value
+     */
+    public static String updatePayload(Object value) throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            final SQLiteDatabase db = new SQLiteDatabase(connection);
+            db.execSQL(InternBeanUtils.schema());
+            db.execSQL("insert into InternBean(id, status) values (1, 'a'), (2, 'b')");
+
+            InternBeanUtils.updateColumnByIds(db, "payload", value, Arrays.asList(1L, 2L));
+
+            final StringBuilder result = new StringBuilder();
+            final Cursor types = db.rawQuery("select typeof(payload) from InternBean order by id", null);
+            final Cursor beans = db.rawQuery("select * from InternBean order by id", null);
+            try {
+                while (types.moveToNext() && beans.moveToNext()) {
+                    final String payload = InternBeanUtils.fromCursor(beans).getPayload();
+                    result.append(types.getString(0)).append(':')
+                            .append(value == null ? payload == null : value.equals(payload)).append(' ');
+                }
+            } finally {
+                types.close();
+                beans.close();
+            }
+            return result.toString().trim();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * Drives the generated NotNullBeanUtils deleteByIds and updateColumnByIds, and returns the recorded statements
+ */
+public class IdsDriver {
+
+    public static List<String> deleteByIds(int count) {
+        final SQLiteDatabase db = new SQLiteDatabase();
+        NotNullBeanUtils.deleteByIds(db, ids(count));
+        return result(db);
+    }
+
+    public static List<String> updateColumnByIds(String column, int count) {
+        final SQLiteDatabase db = new SQLiteDatabase();
+        NotNullBeanUtils.updateColumnByIds(db, column, "v", ids(count));
+        return result(db);
+    }
+
+    private static List<Long> ids(int count) {
+        final List<Long> ids = new ArrayList<Long>(count);
+        for (long i = 0; i < count; i++) {
+            ids.add(i);
+        }
+        return ids;
+    }
+
+    private static List<String> result(SQLiteDatabase db) {
+        final List<String> result = new ArrayList<String>(db.getExecuted());
+        result.add("compiled=" + db.getCompiled());
+        return result;
+    }
+}
@@ -0,0 +1,29 @@
+package test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * Drives the generated InternBeanUtils.insertAll, and returns the recorded statements
+ */
+public class InsertDriver {
+
+    public static List<String> insertAll(int count) {
+        final List<InternBean> beans = new ArrayList<InternBean>(count);
+        for (int i = 0; i < count; i++) {
+            final InternBean bean = new InternBean();
+            bean.setStatus("s" + i);
+            bean.setCountryCode("c" + i);
+            beans.add(bean);
+        }
+
+        final SQLiteDatabase db = new SQLiteDatabase();
+        final int inserted = InternBeanUtils.insertAll(db, beans);
+
+        final List<String> result = new ArrayList<String>(db.getExecuted());
+        result.add("compiled=" + db.getCompiled() + ", inserted=" + inserted);
+        return result;
+    }
+}
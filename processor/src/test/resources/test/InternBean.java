@@ -0,0 +1,56 @@
+package test;
+
+import com.shuaqiu.sqlighter.SqliteColumn;
+import com.shuaqiu.sqlighter.SqliteId;
+import com.shuaqiu.sqlighter.SqliteTable;
+
+/**
+ * Bean for test, with interned columns
+ */
+@SqliteTable(trackChanges = true)
+public class InternBean {
+
+    @SqliteId(autoIncrement = true)
+    private long id;
+
+    @SqliteColumn(intern = true, nullable = false)
+    private String status;
+
+    @SqliteColumn(intern = true)
+    private String countryCode;
+
+    @SqliteColumn(compress = true)
+    private String payload;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getCountryCode() {
+        return countryCode;
+    }
+
+    public void setCountryCode(String countryCode) {
+        this.countryCode = countryCode;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+}
@@ -0,0 +1,22 @@
+package test;
+
+import com.shuaqiu.sqlighter.SqliteColumn;
+import com.shuaqiu.sqlighter.SqliteTable;
+
+/**
+ * Bean for test, intern and compress on the same field
+ */
+@SqliteTable
+public class InternCompressBean {
+
+    @SqliteColumn(intern = true, compress = true)
+    private String payload;
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+}
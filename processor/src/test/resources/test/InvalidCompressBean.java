@@ -0,0 +1,22 @@
+package test;
+
+import com.shuaqiu.sqlighter.SqliteColumn;
+import com.shuaqiu.sqlighter.SqliteTable;
+
+/**
+ * Bean for test, compress on a field which is not String
+ */
+@SqliteTable
+public class InvalidCompressBean {
+
+    @SqliteColumn(compress = true)
+    private Long size;
+
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+}
@@ -0,0 +1,22 @@
+package test;
+
+import com.shuaqiu.sqlighter.SqliteColumn;
+import com.shuaqiu.sqlighter.SqliteTable;
+
+/**
+ * Bean for test, intern on a field which is not String
+ */
+@SqliteTable
+public class InvalidInternBean {
+
+    @SqliteColumn(intern = true)
+    private int status;
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,43 @@
+package test;
+
+import com.shuaqiu.sqlighter.SqliteId;
+import com.shuaqiu.sqlighter.SqliteTable;
+
+/**
+ * Bean for test, with more than one SqliteId, only the last one is the primary key
+ */
+@SqliteTable
+public class MultiIdBean {
+
+    @SqliteId
+    private Long legacyId;
+
+    @SqliteId
+    private long id;
+
+    private String name;
+
+    public Long getLegacyId() {
+        return legacyId;
+    }
+
+    public void setLegacyId(Long legacyId) {
+        this.legacyId = legacyId;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,87 @@
+package test;
+
+import java.util.Date;
+
+import com.shuaqiu.sqlighter.SqliteColumn;
+import com.shuaqiu.sqlighter.SqliteId;
+import com.shuaqiu.sqlighter.SqliteTable;
+
+/**
+ * Bean for test, with not null columns
+ */
+@SqliteTable(large = true)
+public class NotNullBean {
+
+    @SqliteId
+    private long id;
+
+    private boolean active;
+
+    private Boolean checked;
+
+    @SqliteColumn(nullable = false)
+    private String name;
+
+    private String remark;
+
+    @SqliteColumn(nullable = false)
+    private Date created;
+
+    private Date updated;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    public Boolean isChecked() {
+        return checked;
+    }
+
+    public void setChecked(Boolean checked) {
+        this.checked = checked;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getRemark() {
+        return remark;
+    }
+
+    public void setRemark(String remark) {
+        this.remark = remark;
+    }
+
+    public Date getCreated() {
+        return created;
+    }
+
+    public void setCreated(Date created) {
+        this.created = created;
+    }
+
+    public Date getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(Date updated) {
+        this.updated = updated;
+    }
+}
@@ -0,0 +1,29 @@
+package test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Build;
+import android.util.Log;
+
+/**
+ * Drives the generated AppDatabaseHelper configure and verify, and returns the PRAGMA calls, the warnings and the result
+ */
+public class PragmaDriver {
+
+    public static List<String> configure(int sdkInt, String ignoredPragma) {
+        Build.VERSION.SDK_INT = sdkInt;
+        Log.getWarnings().clear();
+        final SQLiteDatabase db = new SQLiteDatabase();
+        if (ignoredPragma != null) {
+            db.ignorePragma(ignoredPragma);
+        }
+        final boolean ok = AppDatabaseHelper.configure(db);
+
+        final List<String> result = new ArrayList<String>(db.getPragmaCalls());
+        result.addAll(Log.getWarnings());
+        result.add("ok=" + ok);
+        return result;
+    }
+}
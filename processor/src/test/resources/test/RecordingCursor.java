@@ -0,0 +1,79 @@
+package test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.database.Cursor;
+
+/**
+ * Cursor for test, records the isNull calls, and treats every nullable column as null (unless created with false).
+ * getString returns a new instance on every call, like a real Cursor
+ */
+public class RecordingCursor implements Cursor {
+
+    private final List<Integer> nullChecks = new ArrayList<Integer>();
+
+    private final boolean nulls;
+
+    public RecordingCursor() {
+        this(true);
+    }
+
+    public RecordingCursor(boolean nulls) {
+        this.nulls = nulls;
+    }
+
+    public List<Integer> getNullChecks() {
+        return nullChecks;
+    }
+
+    @Override
+    public boolean moveToFirst() {
+        return true;
+    }
+
+    @Override
+    public boolean moveToNext() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public boolean isNull(int columnIndex) {
+        nullChecks.add(columnIndex);
+        return nulls;
+    }
+
+    @Override
+    public int getInt(int columnIndex) {
+        return 1;
+    }
+
+    @Override
+    public long getLong(int columnIndex) {
+        return 1L;
+    }
+
+    @Override
+    public float getFloat(int columnIndex) {
+        return 1F;
+    }
+
+    @Override
+    public double getDouble(int columnIndex) {
+        return 1D;
+    }
+
+    @Override
+    public String getString(int columnIndex) {
+        return new String("value");
+    }
+
+    @Override
+    public byte[] getBlob(int columnIndex) {
+        return new byte[0];
+    }
+}
@@ -0,0 +1,71 @@
+package test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+
+import android.database.sqlite.SQLiteDatabase;
+import com.shuaqiu.sqlighter.observe.InvalidationBus;
+
+/**
+ * Drives the generated InternBeanUtils write methods, and records the notifications as sorted table names
+ */
+public class TransactionDriver {
+
+    private final List<String> events = new ArrayList<String>();
+
+    private final InvalidationBus.Subscription subscription = InvalidationBus.getDefault().subscribe(
+            new InvalidationBus.Listener() {
+                @Override
+                public void onInvalidated(Set<String> tables) {
+                    events.add(new TreeSet<String>(tables).toString());
+                }
+            }, "InternBean");
+
+    public List<String> insert() {
+        try {
+            InternBeanUtils.insertAll(new SQLiteDatabase(), Collections.singletonList(new InternBean()));
+            return events;
+        } finally {
+            subscription.unsubscribe();
+        }
+    }
+
+    public List<String> insertInTransaction() throws Exception {
+        try {
+            final SQLiteDatabase db = new SQLiteDatabase();
+            InternBeanUtils.runInTransaction(db, new Callable<Void>() {
+                @Override
+                public Void call() {
+                    InternBeanUtils.insertAll(db, Collections.singletonList(new InternBean()));
+                    InternBeanUtils.insertAll(db, Collections.singletonList(new InternBean()));
+                    // not committed yet
+                    events.add("inside:" + events.size());
+                    return null;
+                }
+            });
+            return events;
+        } finally {
+            subscription.unsubscribe();
+        }
+    }
+
+    public List<String> insertWithFailedCommit() {
+        try {
+            final SQLiteDatabase db = new SQLiteDatabase();
+            db.setFailEndTransaction(true);
+            try {
+                InternBeanUtils.insertAll(db, Collections.singletonList(new InternBean()));
+                events.add("no exception");
+            } catch (RuntimeException e) {
+                events.add("failed:" + e.getMessage());
+            }
+            return events;
+        } finally {
+            subscription.unsubscribe();
+        }
+    }
+}